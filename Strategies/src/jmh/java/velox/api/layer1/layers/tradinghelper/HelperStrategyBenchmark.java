@@ -0,0 +1,103 @@
+package velox.api.layer1.layers.tradinghelper;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import velox.api.layer1.data.InstrumentInfo;
+
+/**
+ * Evaluation of a helper strategy on a populated book with working orders on
+ * both sides. Order actions are acknowledged by {@link ReplayProvider}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HelperStrategyBenchmark {
+
+    private static final String ALIAS = "BENCH";
+    private static final double PIPS = 0.25;
+    private static final int MID_PRICE = 10_000;
+    private static final int BOOK_DEPTH = 50;
+    private static final int ORDERS_PER_SIDE = 10;
+
+    private static final int UPDATES_COUNT = 1 << 12;
+    private static final int UPDATES_MASK = UPDATES_COUNT - 1;
+
+    @Param({"Chase", "Escape", "Execute"})
+    public String strategyName;
+
+    private ReplayProvider replayProvider;
+    private Layer1ApiHelperStrategyAbstract<?> strategy;
+
+    private final boolean[] sides = new boolean[UPDATES_COUNT];
+    private final int[] prices = new int[UPDATES_COUNT];
+    private final int[] sizes = new int[UPDATES_COUNT];
+    private int updateIndex = 0;
+
+    @Setup
+    public void setup() {
+        replayProvider = new ReplayProvider();
+        strategy = ReplayDriver.createStrategy(strategyName, replayProvider);
+        replayProvider.addListener(strategy);
+        strategy.onInstrumentAdded(ALIAS, new InstrumentInfo(ALIAS, "BENCH", "FUT", PIPS, 1, ALIAS, false));
+
+        // bids are heavier than asks, so all strategies have something to do
+        for (int i = 1; i <= BOOK_DEPTH; i++) {
+            strategy.onDepth(ALIAS, true, MID_PRICE - i, 20);
+            strategy.onDepth(ALIAS, false, MID_PRICE + i, 10);
+        }
+        for (int i = 1; i <= ORDERS_PER_SIDE; i++) {
+            replayProvider.placeOrder(ALIAS, true, (MID_PRICE - 2 * i) * PIPS, 1);
+            replayProvider.placeOrder(ALIAS, false, (MID_PRICE + 2 * i) * PIPS, 1);
+        }
+        replayProvider.deliverUpdates();
+
+        Random random = new Random(1);
+        for (int i = 0; i < UPDATES_COUNT; i++) {
+            boolean isBid = random.nextBoolean();
+            int distance = 1 + random.nextInt(BOOK_DEPTH);
+            sides[i] = isBid;
+            prices[i] = isBid ? MID_PRICE - distance : MID_PRICE + distance;
+            sizes[i] = (isBid ? 20 : 10) + random.nextInt(5);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        strategy.finish();
+    }
+
+    /**
+     * Decision only, book does not change between invocations
+     */
+    @Benchmark
+    public void doActionForAlias() {
+        strategy.doActionForAlias(ALIAS);
+    }
+
+    /**
+     * Full depth event path: book update, evaluation, sending and acknowledging order actions
+     */
+    @Benchmark
+    public void onDepth() {
+        int i = updateIndex++ & UPDATES_MASK;
+        strategy.onDepth(ALIAS, sides[i], prices[i], sizes[i]);
+        replayProvider.deliverUpdates();
+    }
+}
@@ -0,0 +1,106 @@
+package velox.api.layer1.layers.tradinghelper;
+
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import velox.api.layer1.layers.utils.OrderBook;
+
+/**
+ * Depth update followed by top levels sum of the same side, as done by helper
+ * strategies for every depth event. {@link OrderBook} with a TreeMap lookup per
+ * level is the way strategies worked before {@link TickOrderBook}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderBookBenchmark {
+
+    private static final int UPDATES_COUNT = 1 << 16;
+    private static final int UPDATES_MASK = UPDATES_COUNT - 1;
+    private static final int MID_PRICE = 10_000;
+    private static final int BOOK_DEPTH = 100;
+
+    @Param({"5", "20"})
+    public int levelsNumber;
+
+    private final boolean[] sides = new boolean[UPDATES_COUNT];
+    private final int[] prices = new int[UPDATES_COUNT];
+    private final int[] sizes = new int[UPDATES_COUNT];
+    private int updateIndex = 0;
+
+    private OrderBook orderBook;
+    private TickOrderBook tickOrderBook;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(1);
+        int mid = MID_PRICE;
+        for (int i = 0; i < UPDATES_COUNT; i++) {
+            // slow random walk of the mid price, most updates are close to it
+            if (random.nextInt(100) == 0) {
+                mid += random.nextBoolean() ? 1 : -1;
+            }
+            boolean isBid = random.nextBoolean();
+            int distance = (int) Math.min(BOOK_DEPTH, Math.abs(random.nextGaussian() * 10));
+            sides[i] = isBid;
+            prices[i] = isBid ? mid - 1 - distance : mid + 1 + distance;
+            sizes[i] = random.nextInt(5) == 0 ? 0 : 1 + random.nextInt(100);
+        }
+
+        orderBook = new OrderBook();
+        tickOrderBook = new TickOrderBook();
+        for (int i = 1; i <= BOOK_DEPTH; i++) {
+            orderBook.onUpdate(true, MID_PRICE - i, 10);
+            orderBook.onUpdate(false, MID_PRICE + i, 10);
+            tickOrderBook.onUpdate(true, MID_PRICE - i, 10);
+            tickOrderBook.onUpdate(false, MID_PRICE + i, 10);
+        }
+        tickOrderBook.watchTopLevels(levelsNumber);
+    }
+
+    @Benchmark
+    public long orderBook() {
+        int i = updateIndex++ & UPDATES_MASK;
+        boolean isBid = sides[i];
+        orderBook.onUpdate(isBid, prices[i], sizes[i]);
+        return getTopLevelsSum(isBid ? orderBook.getBidMap() : orderBook.getAskMap(), isBid);
+    }
+
+    @Benchmark
+    public long tickOrderBook() {
+        int i = updateIndex++ & UPDATES_MASK;
+        boolean isBid = sides[i];
+        tickOrderBook.onUpdate(isBid, prices[i], sizes[i]);
+        return tickOrderBook.getTopLevelsSum(isBid, levelsNumber);
+    }
+
+    private long getTopLevelsSum(TreeMap<Integer, Long> map, boolean isBid) {
+        if (map.isEmpty()) {
+            return 0;
+        }
+
+        long result = 0;
+        int topPrice = map.firstKey();
+        for (int i = 0; i < levelsNumber; i++) {
+            int price = topPrice + i * (isBid ? -1 : 1);
+            result += map.getOrDefault(price, 0L);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,54 @@
+package velox.api.layer1.simpledemo.datarecording;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of recording one depth update, files are written to the temporary directory
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpecificFormatRecorderBenchmark {
+
+    private File depthFile;
+    private File ordersFile;
+    private SpecificFormatRecorder recorder;
+    private int updateIndex = 0;
+
+    @Setup
+    public void setup() throws IOException {
+        depthFile = File.createTempFile("recorder-benchmark-depth", ".txt");
+        ordersFile = File.createTempFile("recorder-benchmark-orders", ".txt");
+        recorder = new SpecificFormatRecorder(System.currentTimeMillis(), depthFile, ordersFile, "Benchmark");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        recorder.close();
+        depthFile.delete();
+        ordersFile.delete();
+    }
+
+    @Benchmark
+    public void onDepth() throws IOException {
+        int i = updateIndex++;
+        recorder.onDepth(1, (i & 1) == 0, 2500.25 + (i & 63) * 0.25, i & 1023);
+    }
+}
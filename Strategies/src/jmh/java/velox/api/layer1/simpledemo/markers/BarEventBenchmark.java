@@ -0,0 +1,65 @@
+package velox.api.layer1.simpledemo.markers;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import velox.api.layer1.simpledemo.markers.Layer1ApiBarsDemo.BarEvent;
+
+/**
+ * Bar accumulation for every trade and icon rendering for every visible bar
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class BarEventBenchmark {
+
+    private static final int PRICES_COUNT = 1 << 12;
+    private static final int PRICES_MASK = PRICES_COUNT - 1;
+    private static final int BODY_WIDTH_PX = 15;
+
+    private final double[] prices = new double[PRICES_COUNT];
+    private int priceIndex = 0;
+
+    private BarEvent accumulatedBar;
+    private BarEvent renderedBar;
+    private final Function<Double, Integer> yDataCoordinateToPixelFunction = y -> (int) Math.round(y * 4);
+
+    @Setup
+    public void setup() {
+        Random random = new Random(1);
+        double price = 10_000;
+        for (int i = 0; i < PRICES_COUNT; i++) {
+            price += random.nextInt(3) - 1;
+            prices[i] = price;
+        }
+
+        accumulatedBar = new BarEvent(0);
+        renderedBar = new BarEvent(0, 10_000, 9_990, 10_015, 10_010, BODY_WIDTH_PX);
+    }
+
+    @Benchmark
+    public BarEvent update() {
+        accumulatedBar.update(prices[priceIndex++ & PRICES_MASK]);
+        return accumulatedBar;
+    }
+
+    @Benchmark
+    public Object makeMarker() {
+        return renderedBar.makeMarker(yDataCoordinateToPixelFunction);
+    }
+}
@@ -0,0 +1,76 @@
+package velox.api.layer1.simplified.demo;
+
+import java.lang.reflect.Proxy;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import velox.api.layer1.data.InstrumentInfo;
+import velox.api.layer1.simplified.Api;
+import velox.api.layer1.simplified.Indicator;
+
+/**
+ * One interval of {@link PowerIndicator4}: a few depth updates followed by
+ * onInterval, which maintains the rolling dominance window. Indicator points
+ * are discarded and signals go to {@link PowerEventLog#disabled()}, so the
+ * log writer thread and file I/O are not measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PowerIndicatorBenchmark {
+
+    private static final int UPDATES_COUNT = 1 << 12;
+    private static final int UPDATES_MASK = UPDATES_COUNT - 1;
+    private static final int UPDATES_PER_INTERVAL = 8;
+
+    private final int[] sizes = new int[UPDATES_COUNT];
+    private int updateIndex = 0;
+
+    private PowerIndicator4 indicator;
+
+    @Setup
+    public void setup() {
+        Indicator indicatorStub = (Indicator) Proxy.newProxyInstance(Indicator.class.getClassLoader(),
+                new Class<?>[] {Indicator.class}, (proxy, method, args) -> null);
+        Api api = (Api) Proxy.newProxyInstance(Api.class.getClassLoader(), new Class<?>[] {Api.class},
+                (proxy, method, args) -> method.getReturnType() == Indicator.class ? indicatorStub : null);
+
+        indicator = new PowerIndicator4();
+        indicator.initialize("BENCH", new InstrumentInfo("BENCH", "BENCH", "FUT", 0.25, 1, "BENCH", false), api,
+                PowerEventLog.disabled());
+
+        Random random = new Random(1);
+        for (int i = 0; i < UPDATES_COUNT; i++) {
+            sizes[i] = 1 + random.nextInt(100);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        indicator.stop();
+    }
+
+    @Benchmark
+    public void onInterval() {
+        for (int i = 0; i < UPDATES_PER_INTERVAL; i++) {
+            int index = updateIndex++ & UPDATES_MASK;
+            indicator.onDepth((index & 1) == 0, 10_000 + (index & 15), sizes[index]);
+        }
+        indicator.onInterval();
+    }
+}
@@ -27,6 +27,11 @@ public class HelperChaseStrategySettings extends HelperStrategySettings {
         this.mode = settings.mode;
     }
     
+    @Override
+    public HelperChaseStrategySettings copy() {
+        return new HelperChaseStrategySettings(this);
+    }
+    
     public int getDistance() {
         return distance;
     }
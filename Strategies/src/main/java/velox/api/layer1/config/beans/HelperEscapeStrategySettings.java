@@ -34,6 +34,11 @@ public class HelperEscapeStrategySettings extends HelperStrategySettings {
         this.percent = settings.percent;
     }
     
+    @Override
+    public HelperEscapeStrategySettings copy() {
+        return new HelperEscapeStrategySettings(this);
+    }
+    
     public Mode getMode() {
         return mode;
     }
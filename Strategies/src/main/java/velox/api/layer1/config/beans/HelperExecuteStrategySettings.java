@@ -22,6 +22,11 @@ public class HelperExecuteStrategySettings extends HelperStrategySettings {
         this.tickNumber = settings.tickNumber;
         this.percent = settings.percent;
     }
+    
+    @Override
+    public HelperExecuteStrategySettings copy() {
+        return new HelperExecuteStrategySettings(this);
+    }
 
     public int getLevelsNumber() {
         return levelsNumber;
@@ -1,6 +1,6 @@
 package velox.api.layer1.config.beans;
 
-public class HelperStrategySettings {
+public abstract class HelperStrategySettings {
     private boolean isEnabled = false;
     
     public HelperStrategySettings() {
@@ -18,4 +18,9 @@ public class HelperStrategySettings {
         this.isEnabled = isEnabled;
     }
     
+    /**
+     * Independent copy, used as the snapshot read by evaluation
+     */
+    public abstract HelperStrategySettings copy();
+    
 }
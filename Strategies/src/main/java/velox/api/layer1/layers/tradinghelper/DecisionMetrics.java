@@ -0,0 +1,74 @@
+package velox.api.layer1.layers.tradinghelper;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decision latency statistics of one strategy for one instrument. Latency is
+ * measured from the first data event that was not evaluated yet (or from the
+ * start of evaluation if it was not triggered by data) to the moment the
+ * resulting order action is passed to the provider.
+ * All recording methods are allocation free and can be called from any thread.
+ */
+public class DecisionMetrics {
+
+    /**
+     * Data event to provider.updateOrder
+     */
+    public final LatencyHistogram decisionLatency = new LatencyHistogram();
+    /**
+     * Time spent waiting for the instrument lock
+     */
+    public final LatencyHistogram lockWait = new LatencyHistogram();
+
+    private final AtomicLong pendingEventNanos = new AtomicLong();
+    private volatile long evaluationEventNanos;
+
+    private final AtomicLong evaluationsCount = new AtomicLong();
+    private long lastRateEvaluationsCount;
+    private long lastRateNanos;
+    private volatile double evaluationsPerSecond;
+
+    /**
+     * Data event that may cause evaluation has arrived
+     */
+    public void onEvent(long nowNanos) {
+        // keep the oldest unevaluated event, coalesced events have to report full delay
+        pendingEventNanos.compareAndSet(0, nowNanos);
+    }
+
+    /**
+     * Evaluation is about to start, actions submitted during it are attributed to the pending event
+     */
+    public void onEvaluationStarted(long nowNanos) {
+        long eventNanos = pendingEventNanos.getAndSet(0);
+        evaluationEventNanos = eventNanos != 0 ? eventNanos : nowNanos;
+        evaluationsCount.incrementAndGet();
+    }
+
+    /**
+     * @return time of the event that triggered current evaluation
+     */
+    public long getEvaluationEventNanos() {
+        return evaluationEventNanos;
+    }
+
+    public long getEvaluationsCount() {
+        return evaluationsCount.get();
+    }
+
+    public double getEvaluationsPerSecond() {
+        return evaluationsPerSecond;
+    }
+
+    /**
+     * Recalculate evaluations rate, called periodically from a single thread
+     */
+    void updateRate(long nowNanos) {
+        long evaluations = evaluationsCount.get();
+        if (lastRateNanos != 0 && nowNanos > lastRateNanos) {
+            evaluationsPerSecond = (evaluations - lastRateEvaluationsCount) * 1e9 / (nowNanos - lastRateNanos);
+        }
+        lastRateEvaluationsCount = evaluations;
+        lastRateNanos = nowNanos;
+    }
+}
@@ -0,0 +1,100 @@
+package velox.api.layer1.layers.tradinghelper;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import velox.api.layer1.common.Log;
+
+/**
+ * Runs strategy evaluations on a dedicated thread instead of the data thread.
+ * Data thread only marks an alias as dirty, evaluator thread wakes up once
+ * per quantum and evaluates every dirty alias once, so a burst of updates
+ * between two wake ups costs a single evaluation on the latest book state.
+ * Aliases marked dirty again during a pass wait for the next quantum.
+ */
+public class EvaluationScheduler {
+
+    public interface Evaluator {
+        void evaluate(String alias);
+    }
+
+    private final Evaluator evaluator;
+    private final ConcurrentHashMap<String, AtomicBoolean> dirtyFlags = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<String> dirtyAliases = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService executor;
+
+    private final LongAdder requestsCount = new LongAdder();
+    private final LongAdder evaluationsCount = new LongAdder();
+
+    public EvaluationScheduler(String name, long quantumMs, Evaluator evaluator) {
+        this.evaluator = evaluator;
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, name + " evaluator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::evaluateDirty, quantumMs, quantumMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Request evaluation of the alias. Cheap and non-blocking, safe to call from the data thread
+     */
+    public void markDirty(String alias) {
+        requestsCount.increment();
+        AtomicBoolean dirtyFlag = dirtyFlags.computeIfAbsent(alias, k -> new AtomicBoolean());
+        if (dirtyFlag.compareAndSet(false, true)) {
+            dirtyAliases.add(alias);
+        }
+    }
+
+    /**
+     * Stop tracking the alias, pending evaluation of it is dropped
+     */
+    public void remove(String alias) {
+        dirtyFlags.remove(alias);
+    }
+
+    private void evaluateDirty() {
+        // Only aliases that were dirty when the pass started, size is cheap for a few aliases
+        int count = dirtyAliases.size();
+        for (int i = 0; i < count; i++) {
+            String alias = dirtyAliases.poll();
+            AtomicBoolean dirtyFlag = dirtyFlags.get(alias);
+            if (dirtyFlag == null) {
+                continue;
+            }
+            // clear before evaluating, so updates arriving during evaluation are not lost
+            dirtyFlag.set(false);
+            evaluationsCount.increment();
+            try {
+                evaluator.evaluate(alias);
+            } catch (RuntimeException e) {
+                Log.error("Helper strategy: evaluation failed for " + alias, e);
+            }
+        }
+    }
+
+    public long getRequestsCount() {
+        return requestsCount.sum();
+    }
+
+    public long getEvaluationsCount() {
+        return evaluationsCount.sum();
+    }
+
+    /**
+     * Number of evaluation requests that were merged into another evaluation
+     */
+    public long getCoalescedCount() {
+        return Math.max(0, getRequestsCount() - getEvaluationsCount() - dirtyAliases.size());
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,68 @@
+package velox.api.layer1.layers.tradinghelper;
+
+import velox.api.layer1.config.beans.HelperStrategySettings;
+import velox.api.layer1.data.OrderInfoUpdate;
+
+/**
+ * Everything a helper strategy tracks for one instrument. Order book and
+ * working orders are shared with other helper strategies through
+ * {@link SharedInstrument} and are read-only here. All fields except alias,
+ * pips and settings are guarded by {@link #lock}, which is the lock of the
+ * shared instrument, so instruments are updated and evaluated independently
+ * of each other.
+ * @param <V> settings class
+ */
+public class InstrumentState<V extends HelperStrategySettings> {
+    public final String alias;
+    public final double pips;
+
+    public final SharedInstrument sharedInstrument;
+    public final Object lock;
+
+    /**
+     * Private copy of the instrument settings. Never modified after it is
+     * published, GUI changes replace the whole reference, so evaluation reads
+     * it once without locking.
+     */
+    public volatile V settings;
+
+    public final OrderBookView orderBook;
+    public final WorkingOrdersView workingOrders;
+    public final RequestThrottle requestThrottle;
+    public final DecisionMetrics metrics = new DecisionMetrics();
+    /**
+     * Last trade price in ticks, NaN if there were no trades yet
+     */
+    public double lastTradePrice = Double.NaN;
+
+    /**
+     * Position of this strategy in event streams of the shared instrument,
+     * only meaningful while the stream is in sync
+     */
+    long depthEventsCount;
+    long orderEventsCount;
+    long rewindsCount;
+    boolean isDepthInSync = true;
+    boolean isOrderInSync = true;
+    boolean isStreamMismatchReported = false;
+    /**
+     * Update received out of sync before any strategy applied it, with the
+     * number it would get. Depth number is 0 if there is no such update.
+     */
+    long pendingDepthNumber = 0;
+    boolean pendingIsBid;
+    int pendingPrice;
+    int pendingSize;
+    long pendingOrderNumber;
+    OrderInfoUpdate pendingOrderUpdate;
+
+    public InstrumentState(SharedInstrument sharedInstrument, long requestDelayMs) {
+        this.sharedInstrument = sharedInstrument;
+        alias = sharedInstrument.alias;
+        pips = sharedInstrument.pips;
+        lock = sharedInstrument.lock;
+        orderBook = sharedInstrument.getOrderBook();
+        workingOrders = sharedInstrument.getWorkingOrders();
+        requestThrottle = new RequestThrottle(requestDelayMs);
+    }
+}
@@ -2,9 +2,6 @@ package velox.api.layer1.layers.tradinghelper;
 
 import java.awt.Dimension;
 import java.awt.FlowLayout;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Map;
 
 import javax.swing.ButtonGroup;
 import javax.swing.JLabel;
@@ -20,13 +17,7 @@ import velox.api.layer1.annotations.Layer1Attachable;
 import velox.api.layer1.annotations.Layer1StrategyName;
 import velox.api.layer1.annotations.Layer1TradingStrategy;
 import velox.api.layer1.config.beans.HelperChaseStrategySettings;
-import velox.api.layer1.data.InstrumentInfo;
-import velox.api.layer1.data.OrderMoveParameters;
 import velox.api.layer1.data.TradeInfo;
-import velox.api.layer1.layers.utils.OrderBook;
-import velox.api.layer1.messages.UserMessageRewindBase;
-import velox.api.layer1.messages.indicators.SettingsAccess;
-import velox.api.layer1.providers.data.Combination;
 import velox.gui.StrategyPanel;
 
 @Layer1Attachable
@@ -43,10 +34,6 @@ public class Layer1ApiHelperChaseStrategy extends Layer1ApiHelperStrategyAbstrac
     private JRadioButton rbChaseBest;
     private JRadioButton rbChaseLast;
     
-    private Map<String, HelperChaseStrategySettings> settingsMap = new HashMap<>();
-    
-    private Map<String, Double> lastPriceMap = new HashMap<>();
-    
     public Layer1ApiHelperChaseStrategy(Layer1ApiProvider provider) {
         super(provider, "Chase", "velox.strategy.Chase", HelperChaseStrategySettings.class);
     }
@@ -83,7 +70,7 @@ public class Layer1ApiHelperChaseStrategy extends Layer1ApiHelperStrategyAbstrac
             panel.setMinimumSize(new Dimension(panel.getMinimumSize().width, 100));
             panel.setPreferredSize(new Dimension(panel.getPreferredSize().width, 100));
             
-            lastPanels = new StrategyPanel[] {panel, getSettingsPanel(alias, getSettingsFor(alias).isEnabled())};
+            lastPanels = new StrategyPanel[] {panel, getSettingsPanel(alias, getSettingsFor(alias).isEnabled()), getStatisticsPanel(alias)};
             return lastPanels;
         }
     }
@@ -117,110 +104,83 @@ public class Layer1ApiHelperChaseStrategy extends Layer1ApiHelperStrategyAbstrac
     
     @Override
     protected void doActionForAlias(String alias) {
-        if (!getSettingsFor(alias).isEnabled() || !isWorking) {
+        InstrumentState<HelperChaseStrategySettings> state = instruments.get(alias);
+        if (state == null) {
             return;
         }
         
-        synchronized (locker) {
-            OrderBook orderBook = orderBookMap.get(alias);
-            Map<String, Combination<Integer, Boolean>> ordersMap = aliasToOrdersMap.get(alias);
-            Double pips = pipsMap.get(alias);
-            Map<OrderRequest, Long> requestTimesMap = lastRequestMap.get(alias);
-            
-            if (orderBook == null || ordersMap == null || pips == null || requestTimesMap == null) {
-                return;
+        HelperChaseStrategySettings settings = state.settings;
+        if (!settings.isEnabled() || !isWorking) {
+            return;
+        }
+        
+        // without the evaluator thread the lock is already held by the event handler, which recorded the wait
+        boolean isLockHeld = Thread.holdsLock(state.lock);
+        long lockRequestNanos = System.nanoTime();
+        synchronized (state.lock) {
+            if (!isLockHeld) {
+                state.metrics.lockWait.record(System.nanoTime() - lockRequestNanos);
             }
+            OrderBookView orderBook = state.orderBook;
+            WorkingOrdersView workingOrders = state.workingOrders;
+            double pips = state.pips;
+            RequestThrottle requestThrottle = state.requestThrottle;
+            requestThrottle.advance(System.nanoTime());
             
-            int distance = getSettingsFor(alias).getDistance();
+            int distance = settings.getDistance();
             
-            if (!orderBook.getBidMap().isEmpty() && !orderBook.getAskMap().isEmpty()) {
+            if (!orderBook.isEmpty(true) && !orderBook.isEmpty(false)) {
                 int chaseBidLevel = 0;
                 int chaseAskLevel = 0;
-                switch (getSettingsFor(alias).getMode()) {
+                switch (settings.getMode()) {
                 case BEST_PRICE:
-                    chaseBidLevel = orderBook.getBidMap().firstKey();
-                    chaseAskLevel = orderBook.getAskMap().firstKey();
+                    chaseBidLevel = orderBook.getBestPrice(true);
+                    chaseAskLevel = orderBook.getBestPrice(false);
                     break;
                 case LAST_PRICE:
-                    if (!lastPriceMap.containsKey(alias)) {
-                        chaseBidLevel = orderBook.getBidMap().firstKey();
-                        chaseAskLevel = orderBook.getAskMap().firstKey();
+                    if (Double.isNaN(state.lastTradePrice)) {
+                        chaseBidLevel = orderBook.getBestPrice(true);
+                        chaseAskLevel = orderBook.getBestPrice(false);
                     } else {
-                        chaseBidLevel = chaseAskLevel = (int) Math.round(lastPriceMap.get(alias));
+                        chaseBidLevel = chaseAskLevel = (int) Math.round(state.lastTradePrice);
                     }
                     break;
                 default:
-                    throw new IllegalArgumentException("Unknown chase mode: " + getSettingsFor(alias).getMode());
+                    throw new IllegalArgumentException("Unknown chase mode: " + settings.getMode());
                 }
                 
-                ArrayList<Combination<String, Double>> pendingMoves = new ArrayList<>();
-                final int chaseBid = chaseBidLevel;
-                final int chaseAsk = chaseAskLevel;
-                ordersMap.forEach((orderId, info) -> {
-                    int level = info.first;
-                    Integer targetLevel = null;
-                    if (info.second) { //bid
-                        if (chaseBid - level > distance) {
-                            targetLevel = chaseBid - distance;
-                        }
-                    } else { //ask
-                        if (level - chaseAsk > distance) {
-                            targetLevel = chaseAsk + distance;
-                        }
-                    }
-                    
-                    if (targetLevel != null) {
-                        OrderRequest orderRequest = new OrderRequest(orderId, targetLevel);
-                        Long t = requestTimesMap.getOrDefault(orderRequest, 0L);
-                        
-                        if (System.currentTimeMillis() - t >= REQUEST_DELAY_MS) {
-                            pendingMoves.add(new Combination<String, Double>(orderId, targetLevel * pips));
-                            requestTimesMap.put(orderRequest, System.currentTimeMillis());
-                        }
-                    }
-                });
+                final int bidTargetLevel = chaseBidLevel - distance;
+                final int askTargetLevel = chaseAskLevel + distance;
                 
-                for (Combination<String, Double> pendingMove : pendingMoves) {
-                    provider.updateOrder(new OrderMoveParameters(pendingMove.first, Double.NaN, pendingMove.second));
-                }
+                //only orders further than distance from the chase level have to be moved
+                workingOrders.forEachInRange(true, Integer.MIN_VALUE, bidTargetLevel - 1,
+                        (orderHandle, level) -> moveOrder(workingOrders, orderHandle, bidTargetLevel, pips, requestThrottle, state.metrics));
+                workingOrders.forEachInRange(false, askTargetLevel + 1, Integer.MAX_VALUE,
+                        (orderHandle, level) -> moveOrder(workingOrders, orderHandle, askTargetLevel, pips, requestThrottle, state.metrics));
             }
         }
     }
     
-    @Override
-    public void onTrade(String alias, double price, int size, TradeInfo tradeInfo) {
-        super.onTrade(alias, price, size, tradeInfo);
-        
-        synchronized (locker) {
-            if (size > 0) {
-                lastPriceMap.put(alias, price);
-                doActionForAlias(alias);
-            }
-        }
-    }
-    
-    @Override
-    public void onInstrumentAdded(String alias, InstrumentInfo instrumentInfo) {
-        super.onInstrumentAdded(alias, instrumentInfo);
-        synchronized (locker) {
-            settingsMap.put(alias, (HelperChaseStrategySettings) settingsAccess.getSettings(alias, strategyName, HelperChaseStrategySettings.class));
-        }
-    }
-    
-    @Override
-    public void acceptSettingsInterface(SettingsAccess settingsAccess) {
-        super.acceptSettingsInterface(settingsAccess);
-        synchronized (locker) {
-            settingsMap.put(null, (HelperChaseStrategySettings) settingsAccess.getSettings(null, strategyName, HelperChaseStrategySettings.class));
+    private void moveOrder(WorkingOrdersView workingOrders, int orderHandle, int targetLevel, double pips,
+            RequestThrottle requestThrottle, DecisionMetrics metrics) {
+        if (requestThrottle.tryAcquire(orderHandle, targetLevel)) {
+            orderActions.submitMove(provider, workingOrders.getOrderId(orderHandle), targetLevel * pips, metrics);
         }
     }
     
     @Override
-    public void onUserMessage(Object data) {
-        super.onUserMessage(data);
-        if (data instanceof UserMessageRewindBase) {
-            synchronized (locker) {
-                lastPriceMap.clear();
+    public void onTrade(String alias, double price, int size, TradeInfo tradeInfo) {
+        super.onTrade(alias, price, size, tradeInfo);
+        
+        InstrumentState<HelperChaseStrategySettings> state = instruments.get(alias);
+        if (state != null && size > 0) {
+            long lockRequestNanos = System.nanoTime();
+            synchronized (state.lock) {
+                long lockAcquiredNanos = System.nanoTime();
+                state.metrics.lockWait.record(lockAcquiredNanos - lockRequestNanos);
+                state.metrics.onEvent(lockAcquiredNanos);
+                state.lastTradePrice = price;
+                requestEvaluation(alias);
             }
         }
     }
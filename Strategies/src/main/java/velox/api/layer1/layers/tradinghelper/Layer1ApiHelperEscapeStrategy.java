@@ -6,8 +6,6 @@ import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.Insets;
 import java.awt.event.ActionListener;
-import java.util.ArrayList;
-import java.util.Map;
 
 import javax.swing.ButtonGroup;
 import javax.swing.JLabel;
@@ -21,13 +19,8 @@ import velox.api.layer1.annotations.Layer1ApiVersionValue;
 import velox.api.layer1.annotations.Layer1Attachable;
 import velox.api.layer1.annotations.Layer1StrategyName;
 import velox.api.layer1.annotations.Layer1TradingStrategy;
-import velox.api.layer1.common.Log;
 import velox.api.layer1.config.beans.HelperEscapeStrategySettings;
 import velox.api.layer1.config.beans.HelperEscapeStrategySettings.Mode;
-import velox.api.layer1.data.OrderCancelParameters;
-import velox.api.layer1.data.OrderMoveParameters;
-import velox.api.layer1.layers.utils.OrderBook;
-import velox.api.layer1.providers.data.Combination;
 import velox.gui.StrategyPanel;
 
 @Layer1Attachable
@@ -153,7 +146,7 @@ public class Layer1ApiHelperEscapeStrategy extends Layer1ApiHelperStrategyAbstra
             gbConst.fill = GridBagConstraints.HORIZONTAL;
             panel2.add(rbCancelOrder, gbConst);
             
-            lastPanels = new StrategyPanel[] {panel1, panel2, getSettingsPanel(alias, getSettingsFor(alias).isEnabled())};
+            lastPanels = new StrategyPanel[] {panel1, panel2, getSettingsPanel(alias, getSettingsFor(alias).isEnabled()), getStatisticsPanel(alias)};
             return lastPanels;
         }
     }
@@ -168,7 +161,7 @@ public class Layer1ApiHelperEscapeStrategy extends Layer1ApiHelperStrategyAbstra
             settings.setMode(Mode.MOVE);
             if (Mode.MOVE != currentMode) {
                 currentMode = settings.getMode();
-                lastRequestMap.forEach((currentAlias, map) -> map.clear());
+                clearLastRequests();
             }
             settingsChanged(alias, settings);
         };
@@ -181,7 +174,7 @@ public class Layer1ApiHelperEscapeStrategy extends Layer1ApiHelperStrategyAbstra
             settings.setMode(Mode.CANCEL);
             if (Mode.CANCEL != currentMode) {
                 currentMode = settings.getMode();
-                lastRequestMap.forEach((currentAlias, map) -> map.clear());
+                clearLastRequests();
             }
             settingsChanged(alias, settings);
         };
@@ -225,40 +218,57 @@ public class Layer1ApiHelperEscapeStrategy extends Layer1ApiHelperStrategyAbstra
         super.reloadGui(alias);
     }
     
+    private void clearLastRequests() {
+        for (InstrumentState<HelperEscapeStrategySettings> state : instruments.values()) {
+            synchronized (state.lock) {
+                state.requestThrottle.clear();
+            }
+        }
+    }
+    
     private void setRbSelections() {
         spinnerMoveDistance.setEnabled(rbMoveOrder.isSelected());
     }
     
     @Override
     protected void doActionForAlias(String alias) {
-        if (!getSettingsFor(alias).isEnabled() || !isWorking) {
+        InstrumentState<HelperEscapeStrategySettings> state = instruments.get(alias);
+        if (state == null) {
             return;
         }
         
-        synchronized (locker) {
-            OrderBook orderBook = orderBookMap.get(alias);
-            
-            if (orderBook == null) {
-                return;
+        HelperEscapeStrategySettings settings = state.settings;
+        if (!settings.isEnabled() || !isWorking) {
+            return;
+        }
+        
+        // without the evaluator thread the lock is already held by the event handler, which recorded the wait
+        boolean isLockHeld = Thread.holdsLock(state.lock);
+        long lockRequestNanos = System.nanoTime();
+        synchronized (state.lock) {
+            if (!isLockHeld) {
+                state.metrics.lockWait.record(System.nanoTime() - lockRequestNanos);
             }
+            OrderBookView orderBook = state.orderBook;
+            state.requestThrottle.advance(System.nanoTime());
             
-            int levelsNumber = getSettingsFor(alias).getConsideredLevelsNumber();
-            int affectedLevelsNumber = getSettingsFor(alias).getAffectedLevelsNumber();
-            int percent = getSettingsFor(alias).getPercent();
+            int levelsNumber = settings.getConsideredLevelsNumber();
+            int affectedLevelsNumber = settings.getAffectedLevelsNumber();
+            int percent = settings.getPercent();
             
-            int volumeBid = getTopLevelsSum(orderBook.getBidMap(), levelsNumber, true);
-            int volumeAsk = getTopLevelsSum(orderBook.getAskMap(), levelsNumber, false);
+            int volumeBid = getTopLevelsSum(orderBook, levelsNumber, true);
+            int volumeAsk = getTopLevelsSum(orderBook, levelsNumber, false);
             
-            if (!orderBook.getBidMap().isEmpty() && !orderBook.getAskMap().isEmpty()) {
-                int firstBidLevel = orderBook.getBidMap().firstKey();
-                int firstAskLevel = orderBook.getAskMap().firstKey();
+            if (!orderBook.isEmpty(true) && !orderBook.isEmpty(false)) {
+                int firstBidLevel = orderBook.getBestPrice(true);
+                int firstAskLevel = orderBook.getBestPrice(false);
                 
                 if (isConditionSatisfiedLess(volumeBid, volumeAsk, percent)) {
-                    executeAction(alias, true, firstBidLevel - affectedLevelsNumber + 1, firstAskLevel);
+                    executeAction(state, settings, true, firstBidLevel - affectedLevelsNumber + 1, firstAskLevel);
                 }
                 
                 if (isConditionSatisfiedLess(volumeAsk, volumeBid, percent)) {
-                    executeAction(alias, false, firstAskLevel + affectedLevelsNumber - 1, firstBidLevel);
+                    executeAction(state, settings, false, firstAskLevel + affectedLevelsNumber - 1, firstBidLevel);
                 }
             }
         }
@@ -266,73 +276,54 @@ public class Layer1ApiHelperEscapeStrategy extends Layer1ApiHelperStrategyAbstra
     
     /**
      * Move orders with prices in range [-inf, borderLevel] or [borderLevel, +inf] (defined by isBid) by offset in moveDirection
-     * @param alias
+     * @param state
+     * @param settings
      * @param isBid if true, execute condition for buy orders, otherwise for sell orders
      * @param borderLevel
      * @param oppositeStartLevel level where opposite trades start
      * @param offset
      * @param moveDirection
      */
-    private void executeAction(String alias, boolean isBid, final int borderLevel, final int oppositeStartLevel) {
-        synchronized (locker) {
-            ArrayList<Combination<String, Integer>> affectedOrders = new ArrayList<>();
-            
-            Map<String, Combination<Integer, Boolean>> ordersMap = aliasToOrdersMap.get(alias);
-            Double pips = pipsMap.get(alias);
-            Map<OrderRequest, Long> requestTimesMap = lastRequestMap.get(alias);
+    private void executeAction(InstrumentState<HelperEscapeStrategySettings> state, HelperEscapeStrategySettings settings, boolean isBid, final int borderLevel, final int oppositeStartLevel) {
+        synchronized (state.lock) {
+            WorkingOrdersView workingOrders = state.workingOrders;
+            double pips = state.pips;
+            RequestThrottle requestThrottle = state.requestThrottle;
             
-            if (ordersMap == null || pips == null || requestTimesMap == null) {
-                Log.warn("Helper strategy: unknown instrument: " + alias);
-                return;
-            }
+            int moveDelta = settings.getMoveDistance() * (isBid ? -1 : 1);
+            Mode mode = settings.getMode();
             
-            ordersMap.forEach((orderId, info) -> {
-                int level = info.first;
-                if (info.second == isBid && isPriceInRange(level, isBid, borderLevel)) {
-                    affectedOrders.add(new Combination<String, Integer>(orderId, level));
-                }
-            });
-            
-            int moveDelta = getSettingsFor(alias).getMoveDistance();
-            Mode mode = getSettingsFor(alias).getMode();
-            
-            if (isBid) {
-                moveDelta *= -1;
-            }
-            
-            for (Combination<String, Integer> pair : affectedOrders) {
+            // actions are only queued, so working orders do not change while they are visited
+            WorkingOrdersView.OrderConsumer affectedOrderAction = (orderHandle, level) -> {
                 switch (mode) {
                 case CANCEL: {
-                    OrderRequest orderRequest = new OrderRequest(pair.first, pair.second);
-                    Long t = requestTimesMap.getOrDefault(orderRequest, 0L);
-                    
-                    if (System.currentTimeMillis() - t >= REQUEST_DELAY_MS) {
-                        provider.updateOrder(new OrderCancelParameters(pair.first));
-                        requestTimesMap.put(orderRequest, System.currentTimeMillis());
+                    if (requestThrottle.tryAcquire(orderHandle, level)) {
+                        orderActions.submitCancel(provider, workingOrders.getOrderId(orderHandle), state.metrics);
                     }
                     
                     break;
                 } case MOVE: {
                     //avoid multiple moves, move 1 time [minLevel, maxLevel]
                     int k = 1;
-                    while (isPriceInRange(pair.second + moveDelta * k, isBid, borderLevel) &&
-                            !isPriceinOppositeRange(pair.second + moveDelta * k, !isBid, oppositeStartLevel)) {
+                    while (isPriceInRange(level + moveDelta * k, isBid, borderLevel) &&
+                            !isPriceinOppositeRange(level + moveDelta * k, !isBid, oppositeStartLevel)) {
                         k++;
                     }
                     
-                    OrderRequest orderRequest = new OrderRequest(pair.first, pair.second + k * moveDelta);
-                    Long t = requestTimesMap.getOrDefault(orderRequest, 0L);
-                    
-                    if (System.currentTimeMillis() - t >= REQUEST_DELAY_MS) {
-                        provider.updateOrder(new OrderMoveParameters(pair.first, Double.NaN, (pair.second + k * moveDelta) * pips));
-                        requestTimesMap.put(orderRequest, System.currentTimeMillis());
+                    if (requestThrottle.tryAcquire(orderHandle, level + k * moveDelta)) {
+                        orderActions.submitMove(provider, workingOrders.getOrderId(orderHandle), (level + k * moveDelta) * pips, state.metrics);
                     }
                     
                     break;
                 } default:
                     throw new IllegalArgumentException("Helper strategy: unknown mode: " + mode);
                 }
-                
+            };
+            
+            if (isBid) {
+                workingOrders.forEachInRange(true, borderLevel, Integer.MAX_VALUE, affectedOrderAction);
+            } else {
+                workingOrders.forEachInRange(false, Integer.MIN_VALUE, borderLevel, affectedOrderAction);
             }
         }
     }
@@ -2,8 +2,6 @@ package velox.api.layer1.layers.tradinghelper;
 
 import java.awt.Dimension;
 import java.awt.FlowLayout;
-import java.util.ArrayList;
-import java.util.Map;
 
 import javax.swing.JLabel;
 import javax.swing.JSpinner;
@@ -16,9 +14,6 @@ import velox.api.layer1.annotations.Layer1Attachable;
 import velox.api.layer1.annotations.Layer1StrategyName;
 import velox.api.layer1.annotations.Layer1TradingStrategy;
 import velox.api.layer1.config.beans.HelperExecuteStrategySettings;
-import velox.api.layer1.data.OrderMoveParameters;
-import velox.api.layer1.layers.utils.OrderBook;
-import velox.api.layer1.providers.data.Combination;
 import velox.gui.StrategyPanel;
 
 @Layer1Attachable
@@ -83,7 +78,7 @@ public class Layer1ApiHelperExecuteStrategy extends Layer1ApiHelperStrategyAbstr
             panel.setMinimumSize(new Dimension(panel.getMinimumSize().width, 155));
             panel.setPreferredSize(new Dimension(panel.getPreferredSize().width, 155));
             
-            lastPanels = new StrategyPanel[] {panel, getSettingsPanel(alias, getSettingsFor(alias).isEnabled())};
+            lastPanels = new StrategyPanel[] {panel, getSettingsPanel(alias, getSettingsFor(alias).isEnabled()), getStatisticsPanel(alias)};
             return lastPanels;
         }
     }
@@ -121,57 +116,54 @@ public class Layer1ApiHelperExecuteStrategy extends Layer1ApiHelperStrategyAbstr
     
     @Override
     protected void doActionForAlias(String alias) {
-        if (!getSettingsFor(alias).isEnabled() || !isWorking) {
+        InstrumentState<HelperExecuteStrategySettings> state = instruments.get(alias);
+        if (state == null) {
             return;
         }
         
-        synchronized (locker) {
-            OrderBook orderBook = orderBookMap.get(alias);
-            Map<String, Combination<Integer, Boolean>> ordersMap = aliasToOrdersMap.get(alias);
-            Double pips = pipsMap.get(alias);
-            Map<OrderRequest, Long> requestTimesMap = lastRequestMap.get(alias);
-            
-            if (orderBook == null || ordersMap == null || pips == null || requestTimesMap == null) {
-                return;
+        HelperExecuteStrategySettings settings = state.settings;
+        if (!settings.isEnabled() || !isWorking) {
+            return;
+        }
+        
+        // without the evaluator thread the lock is already held by the event handler, which recorded the wait
+        boolean isLockHeld = Thread.holdsLock(state.lock);
+        long lockRequestNanos = System.nanoTime();
+        synchronized (state.lock) {
+            if (!isLockHeld) {
+                state.metrics.lockWait.record(System.nanoTime() - lockRequestNanos);
             }
+            OrderBookView orderBook = state.orderBook;
+            WorkingOrdersView workingOrders = state.workingOrders;
+            double pips = state.pips;
+            RequestThrottle requestThrottle = state.requestThrottle;
+            requestThrottle.advance(System.nanoTime());
             
-            ArrayList<Combination<String, Double>> pendingMoves = new ArrayList<>();
+            int levelsNumber = settings.getLevelsNumber();
             
-            int levelsNumber = getSettingsFor(alias).getLevelsNumber();
+            int volumeBid = getTopLevelsSum(orderBook, levelsNumber, true);
+            int volumeAsk = getTopLevelsSum(orderBook, levelsNumber, false);
+            int percent = settings.getPercent();
+            int distance = settings.getTickNumber();
             
-            int volumeBid = getTopLevelsSum(orderBook.getBidMap(), levelsNumber, true);
-            int volumeAsk = getTopLevelsSum(orderBook.getAskMap(), levelsNumber, false);
-            int percent = getSettingsFor(alias).getPercent();
-            int distance = getSettingsFor(alias).getTickNumber();
-            
-            if (!orderBook.getBidMap().isEmpty() && !orderBook.getAskMap().isEmpty()) {
+            if (!orderBook.isEmpty(true) && !orderBook.isEmpty(false)) {
                 if (isConditionSatisfiedMore(volumeAsk, volumeBid, percent)) {
-                    moveOrders(false, orderBook.getAskMap().firstKey() - distance,ordersMap, pips, requestTimesMap, levelsNumber, pendingMoves);
+                    moveOrders(false, orderBook.getBestPrice(false) - distance, workingOrders, pips, requestThrottle, state.metrics);
                 }
                 
                 if (isConditionSatisfiedMore(volumeBid, volumeAsk, percent)) {
-                    moveOrders(true, orderBook.getBidMap().firstKey() + distance, ordersMap, pips, requestTimesMap, levelsNumber, pendingMoves);
+                    moveOrders(true, orderBook.getBestPrice(true) + distance, workingOrders, pips, requestThrottle, state.metrics);
                 }
             }
-            
-            for (Combination<String, Double> pendingMove : pendingMoves) {
-                provider.updateOrder(new OrderMoveParameters(pendingMove.first, Double.NaN, pendingMove.second));
-            }
         }
     }
     
-    private void moveOrders(boolean isBid, int targetLevel, Map<String, Combination<Integer, Boolean>> ordersMap,
-            double pips, Map<OrderRequest, Long> requestTimesMap,
-            int levelsNumber, ArrayList<Combination<String, Double>> pendingMoves) {
-        ordersMap.forEach((orderId, info) -> {
-            if (info.second == isBid) {
-                OrderRequest orderRequest = new OrderRequest(orderId, targetLevel);
-                Long t = requestTimesMap.getOrDefault(orderRequest, 0L);
-                
-                if (System.currentTimeMillis() - t >= REQUEST_DELAY_MS) {
-                    pendingMoves.add(new Combination<String, Double>(orderId, targetLevel * pips));
-                    requestTimesMap.put(orderRequest, System.currentTimeMillis());
-                }
+    private void moveOrders(boolean isBid, int targetLevel, WorkingOrdersView workingOrders,
+            double pips, RequestThrottle requestThrottle,
+            DecisionMetrics metrics) {
+        workingOrders.forEachOnSide(isBid, (orderHandle, level) -> {
+            if (requestThrottle.tryAcquire(orderHandle, targetLevel)) {
+                orderActions.submitMove(provider, workingOrders.getOrderId(orderHandle), targetLevel * pips, metrics);
             }
         });
     }
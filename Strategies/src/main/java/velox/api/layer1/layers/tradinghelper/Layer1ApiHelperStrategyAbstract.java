@@ -5,15 +5,17 @@ import java.awt.GridBagLayout;
 import java.awt.Insets;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.swing.JCheckBox;
 import javax.swing.JFormattedTextField;
+import javax.swing.JLabel;
 import javax.swing.JSpinner;
+import javax.swing.Timer;
+import javax.swing.event.AncestorEvent;
+import javax.swing.event.AncestorListener;
 import javax.swing.text.NumberFormatter;
 
-import java.util.TreeMap;
-
 import velox.api.layer1.Layer1ApiProvider;
 import velox.api.layer1.Layer1ApiTradingAdapter;
 import velox.api.layer1.Layer1ApiAdminAdapter;
@@ -29,15 +31,12 @@ import velox.api.layer1.common.Log;
 import velox.api.layer1.config.beans.HelperStrategySettings;
 import velox.api.layer1.data.InstrumentInfo;
 import velox.api.layer1.data.OrderInfoUpdate;
-import velox.api.layer1.data.OrderStatus;
-import velox.api.layer1.data.OrderType;
 import velox.api.layer1.layers.utils.OrderBook;
 import velox.api.layer1.messages.UserMessageLayersChainCreatedTargeted;
 import velox.api.layer1.messages.UserMessageRewindBase;
 import velox.api.layer1.messages.indicators.Layer1ApiUserMessageModifyIndicator;
 import velox.api.layer1.messages.indicators.SettingsAccess;
 import velox.api.layer1.messages.indicators.Layer1ApiUserMessageModifyIndicator.GraphType;
-import velox.api.layer1.providers.data.Combination;
 import velox.api.layer1.settings.Layer1ConfigSettingsInterface;
 import velox.gui.StrategyPanel;
 
@@ -54,19 +53,28 @@ public class Layer1ApiHelperStrategyAbstract<V extends HelperStrategySettings> i
      */
     protected static final long REQUEST_DELAY_MS = 1000;
     
+    /**
+     * If positive, evaluations triggered by data events are coalesced and run on a separate thread at most once per
+     * that many milliseconds for each instrument. Otherwise (default) every event is evaluated inline on the data thread.
+     */
+    private static final long EVALUATION_QUANTUM_MS = Long.getLong("velox.strategy.helper.evaluationQuantumMs", 0);
+    
+    private static final int STATISTICS_REFRESH_MS = 1000;
+    
     protected final String userReadableStrategyName;
     protected final String strategyName;
     
+    /**
+     * Guards GUI state only, instrument data is guarded by {@link InstrumentState#lock}
+     */
     protected Object locker = new Object();
     
+    private final Object settingsLocker = new Object();
     private Map<String, V> settingsMap = new HashMap<>();
     
     protected StrategyPanel[] lastPanels;
     
-    protected Map<String, OrderBook> orderBookMap = new HashMap<>(); //alias - order book
-    protected Map<String, Map<String, Combination<Integer, Boolean>>> aliasToOrdersMap = new HashMap<>(); //alias - (orderId - <price, isBid>)
-    protected Map<String, Double> pipsMap = new HashMap<>();
-    protected Map<String, Map<OrderRequest, Long>> lastRequestMap = new HashMap<>(); //alias - mapping <(order id, level number) - last time request on that level was made>
+    protected final Map<String, InstrumentState<V>> instruments = new ConcurrentHashMap<>(); //alias - instrument state
     
     protected SettingsAccess settingsAccess;
     
@@ -78,6 +86,12 @@ public class Layer1ApiHelperStrategyAbstract<V extends HelperStrategySettings> i
     
     private InvalidateIsEnabledCallback invalidateIsEnabledCallback;
     
+    protected final EvaluationScheduler evaluationScheduler;
+    
+    protected final OrderActionPipeline orderActions = OrderActionPipeline.acquire();
+    
+    private final MetricsReporter metricsReporter = MetricsReporter.acquire();
+    
     public Layer1ApiHelperStrategyAbstract(Layer1ApiProvider provider, String userReadableStrategyName, String strategyName, Class<?> settingsClass) {
         this.provider = provider;
         this.settingsClass = settingsClass;
@@ -86,23 +100,50 @@ public class Layer1ApiHelperStrategyAbstract<V extends HelperStrategySettings> i
         
         this.userReadableStrategyName = userReadableStrategyName;
         this.strategyName = strategyName;
+        
+        evaluationScheduler = EVALUATION_QUANTUM_MS > 0
+                ? new EvaluationScheduler(userReadableStrategyName, EVALUATION_QUANTUM_MS, this::evaluate)
+                : null;
+        metricsReporter.register(userReadableStrategyName, instruments);
     }
     
     protected void settingsChanged(String settingsAlias, HelperStrategySettings settingsObject) {
-        synchronized (locker) {
-            V instrumentSettings = getSettingsFor(settingsAlias);
-            
-            settingsAccess.setSettings(settingsAlias, strategyName, settingsObject, settingsObject.getClass());
-            
-            for (String alias : orderBookMap.keySet()) {
-                doActionForAlias(alias);
-            }
+        settingsAccess.setSettings(settingsAlias, strategyName, settingsObject, settingsObject.getClass());
+        publishSettings(settingsAlias);
+        
+        // each evaluation only takes the lock of its own instrument
+        for (String alias : instruments.keySet()) {
+            requestEvaluation(alias);
         }
     }
     
     protected void doActionForAlias(String alias) {
     }
     
+    /**
+     * Run strategy for alias and send resulting order actions
+     */
+    protected void evaluate(String alias) {
+        InstrumentState<V> state = alias == null ? null : instruments.get(alias);
+        if (state == null) {
+            return;
+        }
+        state.metrics.onEvaluationStarted(System.nanoTime());
+        doActionForAlias(alias);
+        orderActions.evaluationFinished();
+    }
+    
+    /**
+     * Evaluate strategy for alias after a data event, either right away or on the evaluator thread
+     */
+    protected void requestEvaluation(String alias) {
+        if (evaluationScheduler != null) {
+            evaluationScheduler.markDirty(alias);
+        } else {
+            evaluate(alias);
+        }
+    }
+    
     @Override
     public StrategyPanel[] getCustomGuiFor(String alias, String indicatorName) {
         return new StrategyPanel[0];
@@ -112,44 +153,96 @@ public class Layer1ApiHelperStrategyAbstract<V extends HelperStrategySettings> i
     public void finish() {
         isWorking = false;
         onUserMessage(new Layer1ApiUserMessageModifyIndicator(Layer1ApiHelperStrategyAbstract.class, userReadableStrategyName, false));
-        synchronized (locker) {
-            orderBookMap.clear();
-            aliasToOrdersMap.clear();
-            lastRequestMap.clear();
+        for (InstrumentState<V> state : instruments.values()) {
+            releaseSharedInstrument(state);
         }
+        instruments.clear();
+        if (evaluationScheduler != null) {
+            evaluationScheduler.shutdown();
+            Log.info(userReadableStrategyName + " evaluations: requested " + evaluationScheduler.getRequestsCount()
+                    + ", executed " + evaluationScheduler.getEvaluationsCount()
+                    + ", coalesced " + evaluationScheduler.getCoalescedCount());
+        }
+        OrderActionPipeline.release();
+        metricsReporter.unregister(instruments);
+        MetricsReporter.release();
     }
     
     @Override
     public void onInstrumentAdded(String alias, InstrumentInfo instrumentInfo) {
-        synchronized (locker) {
-            aliasToOrdersMap.put(alias, new HashMap<>());
-            orderBookMap.put(alias, new OrderBook());
-            pipsMap.put(alias, instrumentInfo.pips);
-            lastRequestMap.put(alias, new TreeMap<>());
+        SharedInstrument sharedInstrument = SharedInstrument.acquire(alias, instrumentInfo.pips);
+        InstrumentState<V> state = new InstrumentState<>(sharedInstrument, REQUEST_DELAY_MS);
+        state.settings = copySettings(getSettingsFor(alias));
+        synchronized (state.lock) {
+            sharedInstrument.subscribe(state);
         }
+        instruments.put(alias, state);
     }
     
     @Override
     public void onInstrumentRemoved(String alias) {
-        synchronized (locker) {
-            orderBookMap.remove(alias);
-            lastRequestMap.remove(alias);
+        InstrumentState<V> state = instruments.remove(alias);
+        if (state != null) {
+            releaseSharedInstrument(state);
+        }
+        if (evaluationScheduler != null) {
+            evaluationScheduler.remove(alias);
+        }
+    }
+    
+    private void releaseSharedInstrument(InstrumentState<V> state) {
+        synchronized (state.lock) {
+            state.sharedInstrument.unsubscribe(state);
         }
+        SharedInstrument.release(state.sharedInstrument);
     }
     
     @Override
     public void onDepth(String alias, boolean isBid, int price, int size) {
-        synchronized (locker) {
-            OrderBook orderBook = orderBookMap.get(alias);
-            if (orderBook != null) {
-                orderBook.onUpdate(isBid, price, size);
-                doActionForAlias(alias);
-            } else {
-                Log.warn("Helper strategy: unknown instrument " + alias);
+        InstrumentState<V> state = instruments.get(alias);
+        if (state != null) {
+            long lockRequestNanos = System.nanoTime();
+            synchronized (state.lock) {
+                long lockAcquiredNanos = System.nanoTime();
+                state.metrics.lockWait.record(lockAcquiredNanos - lockRequestNanos);
+                
+                // book is updated only once for all strategies, others get the same changes
+                int changes = state.sharedInstrument.onDepth(state, isBid, price, size);
+                
+                // action suppressed by the throttle is retried once allowed, even if top of book stays still
+                boolean isRetryDue = state.requestThrottle.isRetryDue(lockAcquiredNanos);
+                
+                // deep book updates can not change the decision, so they are not evaluated
+                if (changes != 0) {
+                    OrderBookView orderBook = state.orderBook;
+                    state.metrics.onEvent(lockAcquiredNanos);
+                    onTopOfBookChanged(alias,
+                            orderBook.isEmpty(true) ? Integer.MIN_VALUE : orderBook.getBestPrice(true),
+                            orderBook.isEmpty(false) ? Integer.MAX_VALUE : orderBook.getBestPrice(false),
+                            (changes & SharedInstrument.CHANGED_TOP_LEVELS) != 0);
+                } else if (isRetryDue) {
+                    state.metrics.onEvent(lockAcquiredNanos);
+                    requestEvaluation(alias);
+                }
             }
+        } else {
+            Log.warn("Helper strategy: unknown instrument " + alias);
         }
     }
     
+    /**
+     * Called with instrument lock held when best price of either side or the
+     * size within top levels watched by {@link OrderBookView#watchTopLevels(int)}
+     * has changed. Other depth updates are dropped without evaluation.
+     * @param bestBid best bid in ticks, Integer.MIN_VALUE if there are no bids
+     * @param bestAsk best ask in ticks, Integer.MAX_VALUE if there are no asks
+     * @param topNChanged true if sizes of watched top levels have changed (including
+     *            shift of the window caused by best price change)
+     */
+    protected void onTopOfBookChanged(String alias, int bestBid, int bestAsk, boolean topNChanged) {
+        requestEvaluation(alias);
+    }
+    
     @Override
     public void onUserMessage(Object data) {
         if (data instanceof UserMessageLayersChainCreatedTargeted) {
@@ -162,42 +255,34 @@ public class Layer1ApiHelperStrategyAbstract<V extends HelperStrategySettings> i
         } else if (data instanceof UserMessageRewindBase) {
             UserMessageRewindBase message = (UserMessageRewindBase) data;
             
-            synchronized (locker) {
-                for (Entry<String, OrderBook> entry : message.aliasToOrderBooksMap.entrySet()) {
-                    OrderBook orderBook = orderBookMap.get(entry.getKey());
-                    
-                    if (orderBook != null) {
-                        orderBookMap.put(entry.getKey(), new OrderBook(entry.getValue()));
-                    }
+            for (InstrumentState<V> state : instruments.values()) {
+                OrderBook orderBook = message.aliasToOrderBooksMap.get(state.alias);
+                // conversion is done before taking the lock, under the lock the book is only swapped
+                TickOrderBook preparedOrderBook = orderBook == null ? null : state.sharedInstrument.prepareRewind(state, orderBook);
+                synchronized (state.lock) {
+                    state.sharedInstrument.onRewind(state, preparedOrderBook);
+                    state.lastTradePrice = Double.NaN;
                 }
-                
-                aliasToOrdersMap.forEach((alias, orderMap) -> orderMap.clear());
             }
         }
     }
 
     @Override
     public void onOrderUpdated(OrderInfoUpdate orderInfoUpdate) {
-        synchronized (locker) {
-            Map<String, Combination<Integer, Boolean>> ordersMap = aliasToOrdersMap.get(orderInfoUpdate.instrumentAlias);
-            if (ordersMap == null) {
-                ordersMap = new HashMap<>();
-                aliasToOrdersMap.put(orderInfoUpdate.instrumentAlias, ordersMap);
-            }
-            if (orderInfoUpdate.type == OrderType.LMT) {
-                if (orderInfoUpdate.unfilled == 0 || !(orderInfoUpdate.status == OrderStatus.WORKING)) {
-                    ordersMap.remove(orderInfoUpdate.orderId);
-                } else {
-                    Double pips = pipsMap.get(orderInfoUpdate.instrumentAlias);
-                    if (pips == null) {
-                        Log.warn("Helper strategy: unknown instrument: " + orderInfoUpdate.instrumentAlias);
-                    } else {
-                        ordersMap.put(orderInfoUpdate.orderId, new Combination<Integer, Boolean>((int) Math.round(orderInfoUpdate.limitPrice / pips), orderInfoUpdate.isBuy));
-                    }
-                }
-            }
+        InstrumentState<V> state = instruments.get(orderInfoUpdate.instrumentAlias);
+        if (state == null) {
+            Log.warn("Helper strategy: unknown instrument: " + orderInfoUpdate.instrumentAlias);
+            return;
+        }
+        
+        long lockRequestNanos = System.nanoTime();
+        synchronized (state.lock) {
+            long lockAcquiredNanos = System.nanoTime();
+            state.metrics.lockWait.record(lockAcquiredNanos - lockRequestNanos);
+            state.metrics.onEvent(lockAcquiredNanos);
+            state.sharedInstrument.onOrderUpdated(state, orderInfoUpdate);
             
-            doActionForAlias(orderInfoUpdate.instrumentAlias);
+            requestEvaluation(orderInfoUpdate.instrumentAlias);
         }
     }
     
@@ -206,20 +291,13 @@ public class Layer1ApiHelperStrategyAbstract<V extends HelperStrategySettings> i
         ((NumberFormatter) tfield.getFormatter()).setAllowsInvalid(false);
     }
     
-    protected int getTopLevelsSum(TreeMap<Integer, Long> map, int levelsNumber, boolean isBid) {
-        if (map.isEmpty()) {
-            return 0;
-        }
-        
-        int result = 0;
-        
-        int topPrice = map.firstKey();
-        for (int i = 0; i < levelsNumber; i++) {
-            int price = topPrice + i * (isBid ? -1 : 1);
-            result += map.getOrDefault(price, 0L);
-        }
-                
-        return result;
+    /**
+     * Strategies always ask for the same number of levels, so the book keeps
+     * running sums for it and this is O(1) unless the setting has just changed
+     */
+    protected int getTopLevelsSum(OrderBookView orderBook, int levelsNumber, boolean isBid) {
+        orderBook.watchTopLevels(levelsNumber);
+        return (int) orderBook.getTopLevelsSum(isBid, levelsNumber);
     }
     
     protected boolean isConditionSatisfiedLess(int volumeOur, int volumeTheir, double percent) {
@@ -262,12 +340,76 @@ public class Layer1ApiHelperStrategyAbstract<V extends HelperStrategySettings> i
         return panel;
     }
     
+    /**
+     * Decision latency and related statistics of the alias, refreshed while the panel is shown
+     */
+    protected StrategyPanel getStatisticsPanel(String alias) {
+        StrategyPanel panel = new StrategyPanel("Statistics");
+        
+        panel.setLayout(new GridBagLayout());
+        
+        JLabel lblStatistics = new JLabel();
+        Timer timer = new Timer(STATISTICS_REFRESH_MS, e -> lblStatistics.setText(getStatisticsText(alias)));
+        panel.addAncestorListener(new AncestorListener() {
+            @Override
+            public void ancestorAdded(AncestorEvent event) {
+                lblStatistics.setText(getStatisticsText(alias));
+                timer.start();
+            }
+            
+            @Override
+            public void ancestorRemoved(AncestorEvent event) {
+                timer.stop();
+            }
+            
+            @Override
+            public void ancestorMoved(AncestorEvent event) {
+            }
+        });
+        
+        GridBagConstraints gbConst = new GridBagConstraints();
+        gbConst.gridx = 0;
+        gbConst.gridy = 0;
+        gbConst.weightx = 1;
+        gbConst.anchor = GridBagConstraints.WEST;
+        gbConst.insets = new Insets(5, 5, 5, 5);
+        panel.add(lblStatistics, gbConst);
+        
+        return panel;
+    }
+    
+    private String getStatisticsText(String alias) {
+        // Global panel has no instrument
+        InstrumentState<V> state = alias == null ? null : instruments.get(alias);
+        if (state == null) {
+            return "No data";
+        }
+        
+        long suppressedCount;
+        synchronized (state.lock) {
+            suppressedCount = state.requestThrottle.getSuppressedCount();
+        }
+        DecisionMetrics metrics = state.metrics;
+        return "<html>Evaluations: " + metrics.getEvaluationsCount()
+                + String.format(" (%.1f/s)", metrics.getEvaluationsPerSecond())
+                + "<br>Suppressed requests: " + suppressedCount
+                + "<br>Decision latency: " + metrics.decisionLatency.getSummary()
+                + "<br>Lock wait: " + metrics.lockWait.getSummary() + "</html>";
+    }
+    
     protected void onCbUseInstrumentSettingsClicked(String alias, boolean isSelected) {
         V settings = getSettingsFor(alias);
         settings.setEnabled(isSelected);
         settingsAccess.setSettings(alias, strategyName, settings, settingsClass);
+        publishSettings(alias);
         
-        doActionForAlias(alias);
+        if (alias == null) {
+            for (String instrumentAlias : instruments.keySet()) {
+                requestEvaluation(instrumentAlias);
+            }
+        } else {
+            evaluate(alias);
+        }
         
         if (invalidateIsEnabledCallback != null) {
             invalidateIsEnabledCallback.invalidate();
@@ -292,7 +434,7 @@ public class Layer1ApiHelperStrategyAbstract<V extends HelperStrategySettings> i
     
     @SuppressWarnings("unchecked")
     protected V getSettingsFor(String alias) {
-        synchronized (locker) {
+        synchronized (settingsLocker) {
             V settings = settingsMap.get(alias);
             if (settings == null) {
                 settings = (V) settingsAccess.getSettings(alias, strategyName, settingsClass);
@@ -302,6 +444,29 @@ public class Layer1ApiHelperStrategyAbstract<V extends HelperStrategySettings> i
         }
     }
 
+    /**
+     * Replace settings snapshot used by evaluation with a copy of current settings of the alias
+     */
+    protected void publishSettings(String alias) {
+        if (alias == null) {
+            // Global settings panel, instruments may use these settings
+            for (String instrumentAlias : instruments.keySet()) {
+                publishSettings(instrumentAlias);
+            }
+            return;
+        }
+        InstrumentState<V> state = instruments.get(alias);
+        if (state != null) {
+            state.settings = copySettings(getSettingsFor(alias));
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    protected V copySettings(V settings) {
+        // Every settings class returns its own type from copy()
+        return (V) settings.copy();
+    }
+
     @Override
     public boolean isEnabledFor(String alias) {
         HelperStrategySettings settings = getSettingsFor(alias);
@@ -0,0 +1,150 @@
+package velox.api.layer1.layers.tradinghelper;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import velox.api.layer1.common.Log;
+import velox.api.layer1.utils.RollingFiles;
+
+/**
+ * Periodically updates evaluation rates of all helper strategies and can
+ * append their {@link DecisionMetrics} to a rolling log file. Shared by all
+ * strategies, each strategy registers its instruments once.
+ * <p>
+ * Log is off by default. Setting {@code velox.strategy.helper.metricsLogIntervalMs}
+ * to a positive number of milliseconds enables it, metrics are then appended
+ * to {@value #LOG_FILE_NAME} in the working directory with that interval.
+ * Once the file grows over {@code velox.strategy.helper.metricsLogMaxBytes}
+ * it is renamed to {@value #LOG_FILE_NAME}.1 and so on, keeping
+ * {@value #LOG_FILES_COUNT} old files.
+ */
+public class MetricsReporter {
+
+    private static final String LOG_FILE_NAME = "HelperStrategies_metrics.log";
+    private static final int LOG_FILES_COUNT = 5;
+    private static final long LOG_INTERVAL_MS = Long.getLong("velox.strategy.helper.metricsLogIntervalMs", 0);
+    private static final long LOG_MAX_BYTES = Long.getLong("velox.strategy.helper.metricsLogMaxBytes", 10 * 1024 * 1024);
+    private static final String EOL = System.getProperty("line.separator");
+
+    /**
+     * Evaluation rates are updated this often
+     */
+    private static final long RATE_INTERVAL_MS = 1000;
+
+    private static MetricsReporter instance;
+    private static int referencesCount = 0;
+
+    private static final class Source {
+        private final String strategyName;
+        private final Map<String, ? extends InstrumentState<?>> instruments;
+
+        private Source(String strategyName, Map<String, ? extends InstrumentState<?>> instruments) {
+            this.strategyName = strategyName;
+            this.instruments = instruments;
+        }
+    }
+
+    private final CopyOnWriteArrayList<Source> sources = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService executor;
+    private final File logFile = new File(System.getProperty("user.dir"), LOG_FILE_NAME);
+
+    /**
+     * Get shared reporter, must be paired with {@link #release()}
+     */
+    public static synchronized MetricsReporter acquire() {
+        if (instance == null) {
+            instance = new MetricsReporter();
+        }
+        referencesCount++;
+        return instance;
+    }
+
+    public static synchronized void release() {
+        if (referencesCount > 0 && --referencesCount == 0) {
+            instance.shutdown();
+            instance = null;
+        }
+    }
+
+    private MetricsReporter() {
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "Helper strategies metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::updateRates, RATE_INTERVAL_MS, RATE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        if (LOG_INTERVAL_MS > 0) {
+            executor.scheduleWithFixedDelay(this::writeLog, LOG_INTERVAL_MS, LOG_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void register(String strategyName, Map<String, ? extends InstrumentState<?>> instruments) {
+        sources.add(new Source(strategyName, instruments));
+    }
+
+    public void unregister(Map<String, ? extends InstrumentState<?>> instruments) {
+        sources.removeIf(source -> source.instruments == instruments);
+    }
+
+    /**
+     * One line summary of metrics of the instrument
+     */
+    public static String getSummary(InstrumentState<?> state) {
+        long suppressedCount;
+        synchronized (state.lock) {
+            suppressedCount = state.requestThrottle.getSuppressedCount();
+        }
+        DecisionMetrics metrics = state.metrics;
+        return String.format("evaluations %d (%.1f/s), suppressed requests %d, decision latency %s, lock wait %s",
+                metrics.getEvaluationsCount(), metrics.getEvaluationsPerSecond(), suppressedCount,
+                metrics.decisionLatency.getSummary(), metrics.lockWait.getSummary());
+    }
+
+    private void updateRates() {
+        long now = System.nanoTime();
+        for (Source source : sources) {
+            for (InstrumentState<?> state : source.instruments.values()) {
+                state.metrics.updateRate(now);
+            }
+        }
+    }
+
+    private void writeLog() {
+        if (sources.isEmpty()) {
+            return;
+        }
+
+        StringBuilder builder = new StringBuilder();
+        String time = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date());
+        for (Source source : sources) {
+            for (InstrumentState<?> state : source.instruments.values()) {
+                builder.append(time).append(' ').append(source.strategyName).append(' ').append(state.alias)
+                        .append(": ").append(getSummary(state)).append(EOL);
+            }
+        }
+
+        try {
+            if (logFile.length() > LOG_MAX_BYTES) {
+                RollingFiles.roll(logFile, LOG_FILES_COUNT, "Helper strategy");
+            }
+            try (Writer writer = new FileWriter(logFile, true)) {
+                writer.write(builder.toString());
+            }
+        } catch (IOException e) {
+            Log.warn("Helper strategy: failed to write metrics to " + logFile + ": " + e);
+        }
+    }
+
+    private void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,259 @@
+package velox.api.layer1.layers.tradinghelper;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import velox.api.layer1.Layer1ApiProvider;
+import velox.api.layer1.common.Log;
+import velox.api.layer1.data.OrderCancelParameters;
+import velox.api.layer1.data.OrderMoveParameters;
+
+/**
+ * Outbound order actions of all helper strategies. Moves and cancels are
+ * collected per order id and collapsed into the final intent (latest move,
+ * or cancel which wins over any move), then sent together as one batch.
+ * <p>
+ * Actions of all strategies are collected for the flush window (1 ms by
+ * default) and are sent from a separate thread, so competing strategies and
+ * fast consecutive evaluations do not send conflicting moves for one order.
+ * The window delays every action by up to its length. With the window set to
+ * 0 a batch is sent at the end of each evaluation instead, so only actions of
+ * that evaluation are merged. Actions are kept per thread in that case, so
+ * evaluations of other instruments running at the same time are neither
+ * merged nor sent with it.
+ * <p>
+ * Every action is sent through the provider of the strategy that requested
+ * the final intent.
+ */
+public class OrderActionPipeline {
+
+    private static final long FLUSH_WINDOW_MS = Long.getLong("velox.strategy.helper.orderFlushWindowMs", 1);
+
+    private static OrderActionPipeline instance;
+    private static int referencesCount = 0;
+
+    private static final class OrderAction {
+        private final String orderId;
+        private Layer1ApiProvider provider;
+        private boolean isCancel;
+        private double limitPrice;
+        private DecisionMetrics metrics;
+        private long eventNanos;
+
+        private OrderAction(String orderId) {
+            this.orderId = orderId;
+        }
+    }
+
+    private final long flushWindowMs;
+    private final ScheduledThreadPoolExecutor executor;
+
+    /**
+     * Actions collected for the flush window
+     */
+    private Map<String, OrderAction> pendingActions = new LinkedHashMap<>();
+    private boolean isFlushScheduled = false;
+    /**
+     * Actions of the evaluation running on the current thread, used without flush window
+     */
+    private final ThreadLocal<Map<String, OrderAction>> evaluationActions = ThreadLocal.withInitial(LinkedHashMap::new);
+    private long pendingCount = 0;
+
+    private long submittedCount = 0;
+    private long sentCount = 0;
+    private long batchesCount = 0;
+    private long lastBatchSize = 0;
+    private long lastBatchSendNanos = 0;
+    private long maxBatchSendNanos = 0;
+    private long totalBatchSendNanos = 0;
+
+    /**
+     * Get shared pipeline, must be paired with {@link #release()}
+     */
+    public static synchronized OrderActionPipeline acquire() {
+        if (instance == null) {
+            instance = new OrderActionPipeline(FLUSH_WINDOW_MS);
+        }
+        referencesCount++;
+        return instance;
+    }
+
+    public static synchronized void release() {
+        if (referencesCount > 0 && --referencesCount == 0) {
+            instance.shutdown();
+            instance = null;
+        }
+    }
+
+    private OrderActionPipeline(long flushWindowMs) {
+        this.flushWindowMs = flushWindowMs;
+        if (flushWindowMs > 0) {
+            executor = new ScheduledThreadPoolExecutor(1, r -> {
+                Thread thread = new Thread(r, "Helper strategies order actions");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        } else {
+            executor = null;
+        }
+    }
+
+    /**
+     * @param metrics decision latency of the action is recorded there once it is sent
+     */
+    public void submitMove(Layer1ApiProvider provider, String orderId, double limitPrice, DecisionMetrics metrics) {
+        synchronized (this) {
+            OrderAction action = getOrCreateAction(orderId);
+            if (!action.isCancel) {
+                action.provider = provider;
+                action.limitPrice = limitPrice;
+                setMetrics(action, metrics);
+            }
+        }
+    }
+
+    /**
+     * @param metrics decision latency of the action is recorded there once it is sent
+     */
+    public void submitCancel(Layer1ApiProvider provider, String orderId, DecisionMetrics metrics) {
+        synchronized (this) {
+            OrderAction action = getOrCreateAction(orderId);
+            action.provider = provider;
+            action.isCancel = true;
+            setMetrics(action, metrics);
+        }
+    }
+
+    private void setMetrics(OrderAction action, DecisionMetrics metrics) {
+        action.metrics = metrics;
+        action.eventNanos = metrics.getEvaluationEventNanos();
+    }
+
+    /**
+     * Called by strategies once evaluation is done, sends actions of this
+     * evaluation right away unless flush window is used
+     */
+    public void evaluationFinished() {
+        if (flushWindowMs <= 0) {
+            Map<String, OrderAction> batch = evaluationActions.get();
+            if (!batch.isEmpty()) {
+                // sending may trigger another evaluation on this thread, it gets its own batch
+                evaluationActions.set(new LinkedHashMap<>());
+                send(batch);
+            }
+        }
+    }
+
+    /**
+     * Send all actions collected for the flush window as one batch
+     */
+    public void flush() {
+        Map<String, OrderAction> batch;
+        synchronized (this) {
+            isFlushScheduled = false;
+            if (pendingActions.isEmpty()) {
+                return;
+            }
+            batch = pendingActions;
+            pendingActions = new LinkedHashMap<>();
+        }
+        send(batch);
+    }
+
+    private void send(Map<String, OrderAction> batch) {
+        // provider calls are made without holding the pipeline lock
+        long startNanos = System.nanoTime();
+        for (OrderAction action : batch.values()) {
+            try {
+                if (action.isCancel) {
+                    action.provider.updateOrder(new OrderCancelParameters(action.orderId));
+                } else {
+                    action.provider.updateOrder(new OrderMoveParameters(action.orderId, Double.NaN, action.limitPrice));
+                }
+                action.metrics.decisionLatency.record(System.nanoTime() - action.eventNanos);
+            } catch (RuntimeException e) {
+                Log.error("Helper strategy: failed to send order action for " + action.orderId, e);
+            }
+        }
+        long sendNanos = System.nanoTime() - startNanos;
+
+        synchronized (this) {
+            pendingCount -= batch.size();
+            sentCount += batch.size();
+            batchesCount++;
+            lastBatchSize = batch.size();
+            lastBatchSendNanos = sendNanos;
+            maxBatchSendNanos = Math.max(maxBatchSendNanos, sendNanos);
+            totalBatchSendNanos += sendNanos;
+        }
+    }
+
+    private OrderAction getOrCreateAction(String orderId) {
+        submittedCount++;
+        Map<String, OrderAction> actions = executor != null ? pendingActions : evaluationActions.get();
+        OrderAction action = actions.get(orderId);
+        if (action == null) {
+            action = new OrderAction(orderId);
+            actions.put(orderId, action);
+            pendingCount++;
+            if (executor != null && !isFlushScheduled) {
+                isFlushScheduled = true;
+                executor.schedule(this::flush, flushWindowMs, TimeUnit.MILLISECONDS);
+            }
+        }
+        return action;
+    }
+
+    private void shutdown() {
+        if (executor != null) {
+            // scheduled flush is dropped on shutdown, the final flush below sends its actions
+            executor.shutdown();
+        }
+        flush();
+        Log.info("Helper strategies order actions: " + getStatistics());
+    }
+
+    public synchronized long getSubmittedCount() {
+        return submittedCount;
+    }
+
+    public synchronized long getSentCount() {
+        return sentCount;
+    }
+
+    /**
+     * Number of submitted actions that were merged into another action for the same order
+     */
+    public synchronized long getCollapsedCount() {
+        return submittedCount - sentCount - pendingCount;
+    }
+
+    public synchronized long getBatchesCount() {
+        return batchesCount;
+    }
+
+    public synchronized long getLastBatchSize() {
+        return lastBatchSize;
+    }
+
+    public synchronized long getLastBatchSendNanos() {
+        return lastBatchSendNanos;
+    }
+
+    public synchronized long getMaxBatchSendNanos() {
+        return maxBatchSendNanos;
+    }
+
+    public synchronized long getAverageBatchSendNanos() {
+        return batchesCount == 0 ? 0 : totalBatchSendNanos / batchesCount;
+    }
+
+    public synchronized String getStatistics() {
+        return "submitted " + submittedCount + ", sent " + sentCount + ", collapsed " + getCollapsedCount()
+                + ", batches " + batchesCount + ", average batch send time " + getAverageBatchSendNanos() / 1000 + " us"
+                + ", max batch send time " + maxBatchSendNanos / 1000 + " us";
+    }
+}
@@ -0,0 +1,35 @@
+package velox.api.layer1.layers.tradinghelper;
+
+/**
+ * Read access to an order book shared by helper strategies. Prices are in
+ * ticks. Callers are expected to hold the instrument lock.
+ */
+public interface OrderBookView {
+
+    boolean isEmpty(boolean isBid);
+
+    /**
+     * Best bid (highest) or best ask (lowest) price. Only valid if side is not empty
+     */
+    int getBestPrice(boolean isBid);
+
+    long getSize(boolean isBid, int price);
+
+    /**
+     * Keep running sums of levelsNumber top levels for both sides, so
+     * {@link #getTopLevelsSum(boolean, int)} for that number of levels is O(1).
+     * Sums are rescanned only when the best price moves. Does not change
+     * content of the book.
+     */
+    void watchTopLevels(int levelsNumber);
+
+    /**
+     * @return true if price is within levels watched by {@link #watchTopLevels(int)}, counting from the current best price
+     */
+    boolean isInWatchedLevels(boolean isBid, int price);
+
+    /**
+     * Sum of sizes of levelsNumber levels starting from the best price (including empty levels)
+     */
+    long getTopLevelsSum(boolean isBid, int levelsNumber);
+}
@@ -0,0 +1,203 @@
+package velox.api.layer1.layers.tradinghelper;
+
+import java.util.Arrays;
+
+/**
+ * Interns broker order ids into int handles, so per-order data can be kept in
+ * primitive arrays indexed by {@link #getIndex(int)} and later lookups do not
+ * hash strings. Ids are kept in an open addressing table with linear probing.
+ * <p>
+ * Indices of released ids are reused in the order they were released. A reuse
+ * counter is stored in the upper bits of the handle, so the handle of a new
+ * order differs from the handle of the released one that had the same index.
+ * Not thread safe.
+ */
+public class OrderIdTable {
+
+    public static final int NO_HANDLE = -1;
+
+    private static final int INDEX_BITS = 24;
+    private static final int INDEX_MASK = (1 << INDEX_BITS) - 1;
+    private static final int GENERATION_MASK = (1 << (31 - INDEX_BITS)) - 1;
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * Hash table of handles, id of a handle is in {@link #orderIds}
+     */
+    private int[] slots = newSlots(INITIAL_CAPACITY * 2);
+
+    private String[] orderIds = new String[INITIAL_CAPACITY];
+    private int[] handles = new int[INITIAL_CAPACITY];
+    private int nextIndex = 0;
+
+    /**
+     * Queue of released indices
+     */
+    private int[] freeIndices = new int[INITIAL_CAPACITY];
+    private int freeHead = 0;
+    private int freeCount = 0;
+
+    private int size = 0;
+
+    /**
+     * Index of the handle in arrays of per-order data, less than {@link #getIndexCapacity()}
+     */
+    public static int getIndex(int handle) {
+        return handle & INDEX_MASK;
+    }
+
+    /**
+     * @return handle of the id, new handle is assigned if the id is not known yet
+     */
+    public int intern(String orderId) {
+        int slot = findSlot(orderId);
+        if (slots[slot] != NO_HANDLE) {
+            return slots[slot];
+        }
+
+        int index;
+        if (freeCount != 0) {
+            index = freeIndices[freeHead];
+            freeHead = (freeHead + 1) % freeIndices.length;
+            freeCount--;
+        } else {
+            if (nextIndex > INDEX_MASK) {
+                throw new IllegalStateException("Too many order ids: " + nextIndex);
+            }
+            index = nextIndex++;
+            if (index == orderIds.length) {
+                orderIds = Arrays.copyOf(orderIds, index * 2);
+                handles = Arrays.copyOf(handles, index * 2);
+            }
+            handles[index] = index;
+        }
+
+        int handle = handles[index];
+        orderIds[index] = orderId;
+        slots[slot] = handle;
+        size++;
+        if (size * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+        return handle;
+    }
+
+    /**
+     * @return handle of the id or {@link #NO_HANDLE} if the id is not known
+     */
+    public int getHandle(String orderId) {
+        return slots[findSlot(orderId)];
+    }
+
+    public String getOrderId(int handle) {
+        return orderIds[getIndex(handle)];
+    }
+
+    /**
+     * Forget the id, its index is reused for another id later
+     */
+    public void release(int handle) {
+        int index = getIndex(handle);
+        if (index >= nextIndex || handles[index] != handle || orderIds[index] == null) {
+            return;
+        }
+        removeSlot(findSlot(orderIds[index]));
+        orderIds[index] = null;
+        handles[index] = index | (((handle >>> INDEX_BITS) + 1 & GENERATION_MASK) << INDEX_BITS);
+        size--;
+
+        if (freeCount == freeIndices.length) {
+            int[] newFreeIndices = new int[freeIndices.length * 2];
+            for (int i = 0; i < freeCount; i++) {
+                newFreeIndices[i] = freeIndices[(freeHead + i) % freeIndices.length];
+            }
+            freeIndices = newFreeIndices;
+            freeHead = 0;
+        }
+        freeIndices[(freeHead + freeCount) % freeIndices.length] = index;
+        freeCount++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Arrays of per-order data of this length fit indices of all handles assigned so far
+     */
+    public int getIndexCapacity() {
+        return orderIds.length;
+    }
+
+    public void clear() {
+        for (int index = 0; index < nextIndex && size != 0; index++) {
+            if (orderIds[index] != null) {
+                release(handles[index]);
+            }
+        }
+    }
+
+    /**
+     * @return slot with the handle of the id or the empty slot where it should be
+     */
+    private int findSlot(String orderId) {
+        int mask = slots.length - 1;
+        int slot = hash(orderId) & mask;
+        while (true) {
+            int handle = slots[slot];
+            if (handle == NO_HANDLE || orderIds[getIndex(handle)].equals(orderId)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Backward shift deletion, keeps probe sequences intact without tombstones
+     */
+    private void removeSlot(int slot) {
+        int mask = slots.length - 1;
+        int empty = slot;
+        int current = slot;
+        while (true) {
+            current = (current + 1) & mask;
+            int handle = slots[current];
+            if (handle == NO_HANDLE) {
+                break;
+            }
+            int home = hash(orderIds[getIndex(handle)]) & mask;
+            // entry can fill the gap only if its home slot is not between the gap and itself
+            if (((current - home) & mask) >= ((current - empty) & mask)) {
+                slots[empty] = handle;
+                empty = current;
+            }
+        }
+        slots[empty] = NO_HANDLE;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldSlots = slots;
+        slots = newSlots(capacity);
+        int mask = capacity - 1;
+        for (int handle : oldSlots) {
+            if (handle != NO_HANDLE) {
+                int slot = hash(orderIds[getIndex(handle)]) & mask;
+                while (slots[slot] != NO_HANDLE) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = handle;
+            }
+        }
+    }
+
+    private static int hash(String orderId) {
+        int hash = orderId.hashCode() * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int[] newSlots(int capacity) {
+        int[] slots = new int[capacity];
+        Arrays.fill(slots, NO_HANDLE);
+        return slots;
+    }
+}
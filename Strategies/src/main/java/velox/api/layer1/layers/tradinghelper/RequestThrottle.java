@@ -0,0 +1,193 @@
+package velox.api.layer1.layers.tradinghelper;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Allows at most one request per (order handle, level) within the delay. Entries
+ * are kept in a hashed timing wheel and are dropped as soon as their delay
+ * passes, so memory is bounded by the number of requests made during the last
+ * delay interval. Time is read by the caller once per evaluation and passed to
+ * {@link #advance(long)}. Suppressed requests are not queued, instead
+ * {@link #isRetryDue(long)} tells when the earliest of them can be made again,
+ * so the caller can evaluate again even if nothing else changes.
+ * Not thread safe, callers are expected to hold the instrument lock.
+ */
+public class RequestThrottle {
+
+    private static final int WHEEL_SIZE = 16;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    private static final class Entry {
+        private int orderHandle;
+        private int level;
+
+        private long expiresAt;
+        private int slot;
+        private Entry previous;
+        private Entry next;
+
+        @Override
+        public int hashCode() {
+            return 31 * orderHandle + level;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof Entry) {
+                Entry entry = (Entry) obj;
+                return entry.level == level && entry.orderHandle == orderHandle;
+            }
+            return false;
+        }
+    }
+
+    private final long delayNanos;
+    /**
+     * Delay fits in WHEEL_SIZE - 1 ticks, so every entry in a slot that is
+     * reached by the wheel has already expired
+     */
+    private final long tickNanos;
+
+    private final Map<Entry, Entry> entries = new HashMap<>();
+    private final Entry[] wheel = new Entry[WHEEL_SIZE];
+    private final Entry probe = new Entry();
+
+    private long now;
+    private long currentTick;
+
+    private long suppressedCount = 0;
+    private boolean hasSuppressed = false;
+    /**
+     * Time the earliest suppressed request expires, valid if hasSuppressed
+     */
+    private long retryAt;
+
+    public RequestThrottle(long delayMs) {
+        delayNanos = delayMs * 1_000_000L;
+        tickNanos = Math.max(1, (delayNanos + WHEEL_SIZE - 2) / (WHEEL_SIZE - 1));
+    }
+
+    /**
+     * Set current time and drop expired entries
+     * @param nowNanos monotonic time, {@link System#nanoTime()}
+     */
+    public void advance(long nowNanos) {
+        now = nowNanos;
+        long tick = Math.floorDiv(nowNanos, tickNanos);
+        if (entries.isEmpty()) {
+            currentTick = tick;
+            return;
+        }
+
+        long ticksToProcess = Math.min(tick - currentTick, WHEEL_SIZE);
+        for (long i = 0; i < ticksToProcess; i++) {
+            expireSlot((int) ((currentTick + 1 + i) & WHEEL_MASK));
+        }
+        if (tick > currentTick) {
+            currentTick = tick;
+        }
+    }
+
+    /**
+     * @param orderHandle handle from {@link WorkingOrdersView}, a new order
+     *            does not get the handle of a recently removed one
+     * @return true if request for that order and level can be made now, in
+     *         which case it is remembered; false if same request was made less
+     *         than the delay ago
+     */
+    public boolean tryAcquire(int orderHandle, int level) {
+        probe.orderHandle = orderHandle;
+        probe.level = level;
+        Entry entry = entries.get(probe);
+
+        if (entry != null) {
+            if (now - entry.expiresAt < 0) {
+                suppressedCount++;
+                if (!hasSuppressed || entry.expiresAt - retryAt < 0) {
+                    retryAt = entry.expiresAt;
+                    hasSuppressed = true;
+                }
+                return false;
+            }
+            unlink(entry);
+        } else {
+            entry = new Entry();
+            entry.orderHandle = orderHandle;
+            entry.level = level;
+            entries.put(entry, entry);
+        }
+
+        entry.expiresAt = now + delayNanos;
+        link(entry, (int) (Math.floorDiv(entry.expiresAt + tickNanos - 1, tickNanos) & WHEEL_MASK));
+        return true;
+    }
+
+    /**
+     * @param nowNanos monotonic time, {@link System#nanoTime()}
+     * @return true once if a request was suppressed and its delay has passed
+     *         since, so it would be allowed now
+     */
+    public boolean isRetryDue(long nowNanos) {
+        if (hasSuppressed && nowNanos - retryAt >= 0) {
+            hasSuppressed = false;
+            return true;
+        }
+        return false;
+    }
+
+    public void clear() {
+        hasSuppressed = false;
+        entries.clear();
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel[i] = null;
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Number of requests rejected by {@link #tryAcquire(int, int)} so far
+     */
+    public long getSuppressedCount() {
+        return suppressedCount;
+    }
+
+    private void expireSlot(int slot) {
+        Entry entry = wheel[slot];
+        while (entry != null) {
+            Entry next = entry.next;
+            if (now - entry.expiresAt >= 0) {
+                unlink(entry);
+                entries.remove(entry);
+            }
+            entry = next;
+        }
+    }
+
+    private void link(Entry entry, int slot) {
+        Entry head = wheel[slot];
+        entry.slot = slot;
+        entry.previous = null;
+        entry.next = head;
+        if (head != null) {
+            head.previous = entry;
+        }
+        wheel[slot] = entry;
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.previous != null) {
+            entry.previous.next = entry.next;
+        } else {
+            wheel[entry.slot] = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.previous = entry.previous;
+        }
+        entry.previous = null;
+        entry.next = null;
+    }
+}
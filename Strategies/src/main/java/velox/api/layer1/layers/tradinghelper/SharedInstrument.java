@@ -0,0 +1,375 @@
+package velox.api.layer1.layers.tradinghelper;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import velox.api.layer1.common.Log;
+import velox.api.layer1.data.OrderInfoUpdate;
+import velox.api.layer1.data.OrderStatus;
+import velox.api.layer1.data.OrderType;
+import velox.api.layer1.layers.utils.OrderBook;
+
+/**
+ * Order book and working orders of one instrument, shared by all helper
+ * strategies that have it. Every strategy receives the same stream of events
+ * for the instrument, so each strategy counts the events it has received and
+ * an event is applied only by the first strategy that reaches it, others just
+ * pick up its result, verified against recently applied updates.
+ * <p>
+ * A strategy whose update differs from the recorded one (it was added in the
+ * middle of an event, or there is a filtering layer before it) is out of sync:
+ * it does not apply updates and evaluates on every update it gets until it
+ * finds its position again. That happens when its update matches a recent
+ * one, when an update it received first is then applied by the leading
+ * strategy, or when nobody else moves the stream on, in which case it leads
+ * itself. Rewind puts all strategies back in sync. Order updates are handled
+ * the same way.
+ * All methods must be called with {@link #lock} held, strategies see data
+ * through read-only views.
+ */
+public class SharedInstrument {
+
+    public static final int CHANGED_BEST = 1;
+    public static final int CHANGED_TOP_LEVELS = 2;
+
+    /**
+     * Number of recent depth and order updates remembered to verify that lagging strategies see the same stream
+     */
+    private static final int RECENT_UPDATES_COUNT = 64;
+    private static final int RECENT_UPDATES_MASK = RECENT_UPDATES_COUNT - 1;
+
+    private static final Map<String, SharedInstrument> sharedInstruments = new HashMap<>();
+
+    public final String alias;
+    public final double pips;
+    public final Object lock = new Object();
+
+    private final TickOrderBook orderBook = new TickOrderBook();
+    private final WorkingOrders workingOrders = new WorkingOrders();
+
+    private long depthEventsCount = 0;
+    private long orderEventsCount = 0;
+    private long rewindsCount = 0;
+    private long depthEventsCountAtRewind = 0;
+    private long orderEventsCountAtRewind = 0;
+
+    private final boolean[] recentSides = new boolean[RECENT_UPDATES_COUNT];
+    private final int[] recentPrices = new int[RECENT_UPDATES_COUNT];
+    private final int[] recentSizes = new int[RECENT_UPDATES_COUNT];
+    private final byte[] recentChanges = new byte[RECENT_UPDATES_COUNT];
+
+    private final String[] recentOrderIds = new String[RECENT_UPDATES_COUNT];
+    private final OrderStatus[] recentOrderStatuses = new OrderStatus[RECENT_UPDATES_COUNT];
+    private final int[] recentOrderUnfilled = new int[RECENT_UPDATES_COUNT];
+    private final double[] recentOrderPrices = new double[RECENT_UPDATES_COUNT];
+
+    private final List<InstrumentState<?>> subscribers = new ArrayList<>();
+    private int referencesCount = 0;
+
+    /**
+     * Book prepared for the next rewind, so strategies that receive the same
+     * rewind message convert it once. It is moved into the shared book when
+     * the rewind is applied and is not kept afterwards. Guarded by this object
+     * rather than {@link #lock}.
+     */
+    private TickOrderBook rewindOrderBook;
+    private long preparedRewindNumber = 0;
+    private long appliedRewindNumber = 0;
+
+    /**
+     * Get shared data of the instrument, must be paired with {@link #release(SharedInstrument)}
+     */
+    public static SharedInstrument acquire(String alias, double pips) {
+        synchronized (sharedInstruments) {
+            SharedInstrument sharedInstrument = sharedInstruments.get(alias);
+            if (sharedInstrument == null) {
+                sharedInstrument = new SharedInstrument(alias, pips);
+                sharedInstruments.put(alias, sharedInstrument);
+            }
+            sharedInstrument.referencesCount++;
+            return sharedInstrument;
+        }
+    }
+
+    public static void release(SharedInstrument sharedInstrument) {
+        synchronized (sharedInstruments) {
+            if (--sharedInstrument.referencesCount == 0) {
+                sharedInstruments.remove(sharedInstrument.alias);
+            }
+        }
+    }
+
+    private SharedInstrument(String alias, double pips) {
+        this.alias = alias;
+        this.pips = pips;
+    }
+
+    public OrderBookView getOrderBook() {
+        return orderBook;
+    }
+
+    public WorkingOrdersView getWorkingOrders() {
+        return workingOrders;
+    }
+
+    /**
+     * Start counting events for a strategy that has just added the instrument.
+     * Other strategies may be in the middle of an event, so a strategy that is
+     * not the only one starts out of sync and finds its position on its first
+     * updates.
+     */
+    void subscribe(InstrumentState<?> state) {
+        boolean isFirst = subscribers.isEmpty();
+        subscribers.add(state);
+        state.depthEventsCount = depthEventsCount;
+        state.orderEventsCount = orderEventsCount;
+        state.rewindsCount = rewindsCount;
+        state.isDepthInSync = isFirst;
+        state.isOrderInSync = isFirst;
+        state.pendingDepthNumber = 0;
+        state.pendingOrderUpdate = null;
+    }
+
+    /**
+     * If the leading strategy is gone the next one to reach an event applies
+     * it, out of sync strategies take over once the stream stops moving
+     */
+    void unsubscribe(InstrumentState<?> state) {
+        subscribers.remove(state);
+    }
+
+    /**
+     * @return combination of {@link #CHANGED_BEST} and {@link #CHANGED_TOP_LEVELS}
+     */
+    int onDepth(InstrumentState<?> state, boolean isBid, int price, int size) {
+        if (state.isDepthInSync) {
+            long eventNumber = state.depthEventsCount + 1;
+            if (eventNumber > depthEventsCount) {
+                state.depthEventsCount = eventNumber;
+                return recordDepth(isBid, price, size);
+            }
+            if (isRecentDepth(eventNumber, isBid, price, size)) {
+                state.depthEventsCount = eventNumber;
+                return recentChanges[(int) eventNumber & RECENT_UPDATES_MASK];
+            }
+            if (!state.isStreamMismatchReported) {
+                Log.warn("Helper strategy: depth stream differs between strategies for " + alias
+                        + ", book of the leading strategy is used until the streams match again");
+                state.isStreamMismatchReported = true;
+            }
+            state.isDepthInSync = false;
+            state.pendingDepthNumber = 0;
+        }
+        return resyncDepth(state, isBid, price, size);
+    }
+
+    /**
+     * Find position of an out of sync strategy in the depth stream
+     */
+    private int resyncDepth(InstrumentState<?> state, boolean isBid, int price, int size) {
+        long pendingNumber = state.pendingDepthNumber;
+        if (pendingNumber != 0) {
+            state.pendingDepthNumber = 0;
+            if (depthEventsCount == pendingNumber - 1) {
+                // Nobody else moved the stream on, this strategy leads now
+                int changes = recordDepth(state.pendingIsBid, state.pendingPrice, state.pendingSize);
+                state.depthEventsCount = pendingNumber;
+                state.isDepthInSync = true;
+                return changes | onDepth(state, isBid, price, size);
+            }
+            if (isRecentDepth(pendingNumber, state.pendingIsBid, state.pendingPrice, state.pendingSize)) {
+                // Leading strategy applied the update after this one received it
+                state.depthEventsCount = pendingNumber;
+                state.isDepthInSync = true;
+                return onDepth(state, isBid, price, size);
+            }
+        }
+
+        long oldestNumber = Math.max(0, depthEventsCount - RECENT_UPDATES_COUNT);
+        for (long eventNumber = depthEventsCount; eventNumber > oldestNumber; eventNumber--) {
+            if (isRecentDepth(eventNumber, isBid, price, size)) {
+                state.depthEventsCount = eventNumber;
+                state.isDepthInSync = true;
+                return recentChanges[(int) eventNumber & RECENT_UPDATES_MASK];
+            }
+        }
+
+        // Not applied yet, check again on the next update
+        state.pendingDepthNumber = depthEventsCount + 1;
+        state.pendingIsBid = isBid;
+        state.pendingPrice = price;
+        state.pendingSize = size;
+        return CHANGED_BEST | CHANGED_TOP_LEVELS;
+    }
+
+    private boolean isRecentDepth(long eventNumber, boolean isBid, int price, int size) {
+        if (eventNumber <= 0 || eventNumber > depthEventsCount || depthEventsCount - eventNumber >= RECENT_UPDATES_COUNT) {
+            return false;
+        }
+        int index = (int) eventNumber & RECENT_UPDATES_MASK;
+        return recentSides[index] == isBid && recentPrices[index] == price && recentSizes[index] == size;
+    }
+
+    private int recordDepth(boolean isBid, int price, int size) {
+        long eventNumber = ++depthEventsCount;
+        int changes = applyDepth(isBid, price, size);
+
+        int index = (int) eventNumber & RECENT_UPDATES_MASK;
+        recentSides[index] = isBid;
+        recentPrices[index] = price;
+        recentSizes[index] = size;
+        recentChanges[index] = (byte) changes;
+        return changes;
+    }
+
+    private int applyDepth(boolean isBid, int price, int size) {
+        boolean wasEmpty = orderBook.isEmpty(isBid);
+        int previousBest = orderBook.getBestPrice(isBid);
+        long previousSize = orderBook.onUpdate(isBid, price, size);
+
+        boolean isBestChanged = wasEmpty != orderBook.isEmpty(isBid)
+                || (!wasEmpty && orderBook.getBestPrice(isBid) != previousBest);
+        boolean isTopLevelsChanged = isBestChanged
+                || (previousSize != size && orderBook.isInWatchedLevels(isBid, price));
+
+        return (isBestChanged ? CHANGED_BEST : 0) | (isTopLevelsChanged ? CHANGED_TOP_LEVELS : 0);
+    }
+
+    void onOrderUpdated(InstrumentState<?> state, OrderInfoUpdate orderInfoUpdate) {
+        if (state.isOrderInSync) {
+            long eventNumber = state.orderEventsCount + 1;
+            if (eventNumber > orderEventsCount) {
+                state.orderEventsCount = eventNumber;
+                recordOrder(orderInfoUpdate);
+                return;
+            }
+            if (isRecentOrder(eventNumber, orderInfoUpdate)) {
+                state.orderEventsCount = eventNumber;
+                return;
+            }
+            if (!state.isStreamMismatchReported) {
+                Log.warn("Helper strategy: order updates differ between strategies for " + alias
+                        + ", working orders of the leading strategy are used until the streams match again");
+                state.isStreamMismatchReported = true;
+            }
+            state.isOrderInSync = false;
+            state.pendingOrderUpdate = null;
+        }
+        resyncOrders(state, orderInfoUpdate);
+    }
+
+    /**
+     * Find position of an out of sync strategy in the order stream, same as
+     * {@link #resyncDepth(InstrumentState, boolean, int, int)}
+     */
+    private void resyncOrders(InstrumentState<?> state, OrderInfoUpdate orderInfoUpdate) {
+        OrderInfoUpdate pendingUpdate = state.pendingOrderUpdate;
+        if (pendingUpdate != null) {
+            long pendingNumber = state.pendingOrderNumber;
+            state.pendingOrderUpdate = null;
+            if (orderEventsCount == pendingNumber - 1) {
+                recordOrder(pendingUpdate);
+                state.orderEventsCount = pendingNumber;
+                state.isOrderInSync = true;
+                onOrderUpdated(state, orderInfoUpdate);
+                return;
+            }
+            if (isRecentOrder(pendingNumber, pendingUpdate)) {
+                state.orderEventsCount = pendingNumber;
+                state.isOrderInSync = true;
+                onOrderUpdated(state, orderInfoUpdate);
+                return;
+            }
+        }
+
+        long oldestNumber = Math.max(0, orderEventsCount - RECENT_UPDATES_COUNT);
+        for (long eventNumber = orderEventsCount; eventNumber > oldestNumber; eventNumber--) {
+            if (isRecentOrder(eventNumber, orderInfoUpdate)) {
+                state.orderEventsCount = eventNumber;
+                state.isOrderInSync = true;
+                return;
+            }
+        }
+
+        state.pendingOrderNumber = orderEventsCount + 1;
+        state.pendingOrderUpdate = orderInfoUpdate;
+    }
+
+    private boolean isRecentOrder(long eventNumber, OrderInfoUpdate orderInfoUpdate) {
+        if (eventNumber <= 0 || eventNumber > orderEventsCount || orderEventsCount - eventNumber >= RECENT_UPDATES_COUNT) {
+            return false;
+        }
+        int index = (int) eventNumber & RECENT_UPDATES_MASK;
+        return orderInfoUpdate.orderId.equals(recentOrderIds[index])
+                && orderInfoUpdate.status == recentOrderStatuses[index]
+                && orderInfoUpdate.unfilled == recentOrderUnfilled[index]
+                && Double.compare(orderInfoUpdate.limitPrice, recentOrderPrices[index]) == 0;
+    }
+
+    private void recordOrder(OrderInfoUpdate orderInfoUpdate) {
+        long eventNumber = ++orderEventsCount;
+        int index = (int) eventNumber & RECENT_UPDATES_MASK;
+        recentOrderIds[index] = orderInfoUpdate.orderId;
+        recentOrderStatuses[index] = orderInfoUpdate.status;
+        recentOrderUnfilled[index] = orderInfoUpdate.unfilled;
+        recentOrderPrices[index] = orderInfoUpdate.limitPrice;
+
+        if (orderInfoUpdate.type == OrderType.LMT) {
+            if (orderInfoUpdate.unfilled == 0 || !(orderInfoUpdate.status == OrderStatus.WORKING)) {
+                workingOrders.remove(orderInfoUpdate.orderId);
+            } else {
+                workingOrders.put(orderInfoUpdate.orderId, (int) Math.round(orderInfoUpdate.limitPrice / pips), orderInfoUpdate.isBuy);
+            }
+        }
+    }
+
+    /**
+     * Convert the book received with rewind message. Does not need {@link #lock},
+     * so the conversion does not block data of the instrument. Must be called
+     * from the thread that then calls {@link #onRewind(InstrumentState, TickOrderBook)}.
+     *
+     * @return converted book, null if another strategy has already applied
+     *         this rewind
+     */
+    synchronized TickOrderBook prepareRewind(InstrumentState<?> state, OrderBook source) {
+        long rewindNumber = state.rewindsCount + 1;
+        if (rewindNumber <= appliedRewindNumber) {
+            return null;
+        }
+        if (rewindNumber != preparedRewindNumber) {
+            rewindOrderBook = new TickOrderBook(source);
+            preparedRewindNumber = rewindNumber;
+        }
+        return rewindOrderBook;
+    }
+
+    /**
+     * @param preparedOrderBook result of {@link #prepareRewind(InstrumentState, OrderBook)},
+     *            null if the message has no book for the instrument
+     */
+    void onRewind(InstrumentState<?> state, TickOrderBook preparedOrderBook) {
+        long rewindNumber = ++state.rewindsCount;
+        if (rewindNumber > rewindsCount) {
+            rewindsCount = rewindNumber;
+            if (preparedOrderBook != null) {
+                orderBook.transferFrom(preparedOrderBook);
+            }
+            synchronized (this) {
+                appliedRewindNumber = rewindNumber;
+                rewindOrderBook = null;
+            }
+            workingOrders.clear();
+            depthEventsCountAtRewind = depthEventsCount;
+            orderEventsCountAtRewind = orderEventsCount;
+        }
+        // Rewind is a snapshot, streams start from it again
+        state.depthEventsCount = depthEventsCountAtRewind;
+        state.orderEventsCount = orderEventsCountAtRewind;
+        state.isDepthInSync = true;
+        state.isOrderInSync = true;
+        state.pendingDepthNumber = 0;
+        state.pendingOrderUpdate = null;
+    }
+}
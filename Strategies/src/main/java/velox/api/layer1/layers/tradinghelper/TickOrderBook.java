@@ -0,0 +1,395 @@
+package velox.api.layer1.layers.tradinghelper;
+
+import java.util.Map.Entry;
+
+import velox.api.layer1.layers.utils.OrderBook;
+
+/**
+ * Order book with primitive sides. Each side is a ring buffer of sizes indexed
+ * by price in ticks (index = price &amp; mask), so the window of stored levels
+ * moves together with the market without copying. Updates, best price and top
+ * levels lookups do not box and do not allocate unless the window has to grow.
+ * Not thread safe, callers are expected to hold the instrument lock.
+ */
+public class TickOrderBook implements OrderBookView {
+
+    private static final int INITIAL_CAPACITY = 256;
+    /**
+     * Maximum distance (in ticks) between best and worst stored level. Levels
+     * further than that from the best price are not interesting for helper
+     * strategies and are dropped.
+     */
+    private static final int MAX_CAPACITY = 1 << 20;
+    /**
+     * Book is shared by strategies, each of them may watch its own number of levels
+     */
+    private static final int MAX_WATCHED_WINDOWS = 4;
+
+    private static final class Side {
+        private final boolean isBid;
+
+        private long[] sizes = new long[INITIAL_CAPACITY];
+        private int mask = INITIAL_CAPACITY - 1;
+
+        private int levelsCount = 0;
+        private int best;
+        private int worst;
+
+        /**
+         * Running sums of sizes of watchedLevels[i] levels from the best price,
+         * maintained from update deltas and rescanned only when best price moves
+         */
+        private final int[] watchedLevels = new int[MAX_WATCHED_WINDOWS];
+        private final long[] watchedSums = new long[MAX_WATCHED_WINDOWS];
+        private int watchedCount = 0;
+        /**
+         * Window replaced when a new one is watched and all are taken
+         */
+        private int nextReplacedWindow = 0;
+        private int maxWatchedLevels = 0;
+
+        private Side(boolean isBid) {
+            this.isBid = isBid;
+        }
+
+        private boolean isBetter(int price, int than) {
+            return isBid ? price > than : price < than;
+        }
+
+        private int towardsWorst(int price) {
+            return isBid ? price - 1 : price + 1;
+        }
+
+        private int towardsBest(int price) {
+            return isBid ? price + 1 : price - 1;
+        }
+
+        private boolean isInRange(int price) {
+            return levelsCount != 0 && !isBetter(price, best) && !isBetter(worst, price);
+        }
+
+        private long get(int price) {
+            return isInRange(price) ? sizes[price & mask] : 0;
+        }
+
+        private long update(int price, long size) {
+            boolean wasEmpty = levelsCount == 0;
+            int previousBest = best;
+            long previous = size <= 0 ? remove(price) : set(price, size);
+            if (watchedCount != 0 && previous != size) {
+                updateWatchedSums(wasEmpty, previousBest, price, size - previous);
+            }
+            return previous;
+        }
+
+        private void updateWatchedSums(boolean wasEmpty, int previousBest, int price, long delta) {
+            if (levelsCount == 0) {
+                for (int i = 0; i < watchedCount; i++) {
+                    watchedSums[i] = 0;
+                }
+            } else if (wasEmpty || best != previousBest) {
+                for (int i = 0; i < watchedCount; i++) {
+                    watchedSums[i] = sumTopLevels(watchedLevels[i]);
+                }
+            } else {
+                long distance = getDistanceFromBest(price);
+                for (int i = 0; i < watchedCount; i++) {
+                    if (distance >= 0 && distance < watchedLevels[i]) {
+                        watchedSums[i] += delta;
+                    }
+                }
+            }
+        }
+
+        private long getDistanceFromBest(int price) {
+            return isBid ? (long) best - price : (long) price - best;
+        }
+
+        /**
+         * @return true if price is within the deepest watched window
+         */
+        private boolean isWatched(int price) {
+            long distance = getDistanceFromBest(price);
+            return distance >= 0 && distance < maxWatchedLevels;
+        }
+
+        private void watch(int levelsNumber) {
+            if (getWatchedWindow(levelsNumber) >= 0) {
+                return;
+            }
+
+            int window;
+            if (watchedCount < MAX_WATCHED_WINDOWS) {
+                window = watchedCount++;
+            } else {
+                window = nextReplacedWindow;
+                nextReplacedWindow = (nextReplacedWindow + 1) % MAX_WATCHED_WINDOWS;
+            }
+            watchedLevels[window] = levelsNumber;
+            watchedSums[window] = sumTopLevels(levelsNumber);
+
+            maxWatchedLevels = 0;
+            for (int i = 0; i < watchedCount; i++) {
+                maxWatchedLevels = Math.max(maxWatchedLevels, watchedLevels[i]);
+            }
+        }
+
+        private int getWatchedWindow(int levelsNumber) {
+            for (int i = 0; i < watchedCount; i++) {
+                if (watchedLevels[i] == levelsNumber) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private long set(int price, long size) {
+            if (levelsCount == 0) {
+                best = worst = price;
+                sizes[price & mask] = size;
+                levelsCount = 1;
+                return 0;
+            }
+
+            int newBest = isBetter(price, best) ? price : best;
+            int newWorst = isBetter(worst, price) ? price : worst;
+            long span = Math.abs((long) newBest - newWorst) + 1;
+            if (span > sizes.length) {
+                grow(span);
+                if (span > sizes.length) {
+                    if (price == newWorst) {
+                        // too deep, not tracked
+                        return 0;
+                    }
+                    trimWorst(newBest);
+                    newWorst = worst;
+                }
+            }
+
+            int index = price & mask;
+            long previous = sizes[index];
+            sizes[index] = size;
+            if (previous == 0) {
+                levelsCount++;
+            }
+            best = newBest;
+            worst = newWorst;
+            return previous;
+        }
+
+        private long remove(int price) {
+            if (!isInRange(price)) {
+                return 0;
+            }
+
+            int index = price & mask;
+            long previous = sizes[index];
+            if (previous == 0) {
+                return 0;
+            }
+
+            sizes[index] = 0;
+            levelsCount--;
+            if (levelsCount == 0) {
+                return previous;
+            }
+
+            if (price == best) {
+                best = towardsWorst(best);
+                while (sizes[best & mask] == 0) {
+                    best = towardsWorst(best);
+                }
+            } else if (price == worst) {
+                worst = towardsBest(worst);
+                while (sizes[worst & mask] == 0) {
+                    worst = towardsBest(worst);
+                }
+            }
+            return previous;
+        }
+
+        private void grow(long requiredCapacity) {
+            int capacity = sizes.length;
+            while (capacity < requiredCapacity && capacity < MAX_CAPACITY) {
+                capacity <<= 1;
+            }
+            if (capacity == sizes.length) {
+                return;
+            }
+
+            long[] newSizes = new long[capacity];
+            int newMask = capacity - 1;
+            for (int price = best; ; price = towardsWorst(price)) {
+                newSizes[price & newMask] = sizes[price & mask];
+                if (price == worst) {
+                    break;
+                }
+            }
+            sizes = newSizes;
+            mask = newMask;
+        }
+
+        /**
+         * Drop deepest levels so that window fits the capacity when best price becomes newBest
+         */
+        private void trimWorst(int newBest) {
+            while (Math.abs((long) newBest - worst) + 1 > sizes.length) {
+                int index = worst & mask;
+                if (sizes[index] != 0) {
+                    sizes[index] = 0;
+                    levelsCount--;
+                }
+                if (worst == best) {
+                    break;
+                }
+                worst = towardsBest(worst);
+            }
+
+            if (levelsCount == 0) {
+                // whole book was further than the capacity, new level is the only one
+                worst = newBest;
+            } else {
+                while (sizes[worst & mask] == 0) {
+                    worst = towardsBest(worst);
+                }
+            }
+        }
+
+        private long getTopLevelsSum(int levelsNumber) {
+            int window = getWatchedWindow(levelsNumber);
+            if (window >= 0) {
+                return watchedSums[window];
+            }
+            return sumTopLevels(levelsNumber);
+        }
+
+        private long sumTopLevels(int levelsNumber) {
+            if (levelsCount == 0) {
+                return 0;
+            }
+
+            long result = 0;
+            int price = best;
+            for (int i = 0; i < levelsNumber; i++) {
+                if (isBetter(worst, price)) {
+                    break;
+                }
+                result += sizes[price & mask];
+                price = towardsWorst(price);
+            }
+            return result;
+        }
+
+        private void clear() {
+            if (levelsCount != 0) {
+                for (int price = best; ; price = towardsWorst(price)) {
+                    sizes[price & mask] = 0;
+                    if (price == worst) {
+                        break;
+                    }
+                }
+            }
+            levelsCount = 0;
+            for (int i = 0; i < watchedCount; i++) {
+                watchedSums[i] = 0;
+            }
+        }
+
+        /**
+         * Take over levels of the other side, which is left empty
+         */
+        private void transferFrom(Side source) {
+            sizes = source.sizes;
+            mask = source.mask;
+            levelsCount = source.levelsCount;
+            best = source.best;
+            worst = source.worst;
+            source.sizes = new long[INITIAL_CAPACITY];
+            source.mask = INITIAL_CAPACITY - 1;
+            source.levelsCount = 0;
+            for (int i = 0; i < source.watchedCount; i++) {
+                source.watchedSums[i] = 0;
+            }
+            for (int i = 0; i < watchedCount; i++) {
+                watchedSums[i] = sumTopLevels(watchedLevels[i]);
+            }
+        }
+    }
+
+    private final Side bids = new Side(true);
+    private final Side asks = new Side(false);
+
+    public TickOrderBook() {
+    }
+
+    public TickOrderBook(OrderBook orderBook) {
+        for (Entry<Integer, Long> entry : orderBook.getBidMap().entrySet()) {
+            bids.update(entry.getKey(), entry.getValue());
+        }
+        for (Entry<Integer, Long> entry : orderBook.getAskMap().entrySet()) {
+            asks.update(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Replace content of the book with content of the source book, watched
+     * windows are kept. Levels are moved rather than copied, so the source
+     * book is left empty.
+     */
+    public void transferFrom(TickOrderBook source) {
+        bids.transferFrom(source.bids);
+        asks.transferFrom(source.asks);
+    }
+
+    /**
+     * @return previous size on that level
+     */
+    public long onUpdate(boolean isBid, int price, long size) {
+        return getSide(isBid).update(price, size);
+    }
+
+    @Override
+    public boolean isEmpty(boolean isBid) {
+        return getSide(isBid).levelsCount == 0;
+    }
+
+    @Override
+    public int getBestPrice(boolean isBid) {
+        return getSide(isBid).best;
+    }
+
+    @Override
+    public long getSize(boolean isBid, int price) {
+        return getSide(isBid).get(price);
+    }
+
+    /**
+     * Up to {@value #MAX_WATCHED_WINDOWS} different numbers of levels are
+     * watched at the same time, watching one more replaces the oldest one.
+     */
+    @Override
+    public void watchTopLevels(int levelsNumber) {
+        bids.watch(levelsNumber);
+        asks.watch(levelsNumber);
+    }
+
+    @Override
+    public boolean isInWatchedLevels(boolean isBid, int price) {
+        Side side = getSide(isBid);
+        return side.levelsCount != 0 && side.isWatched(price);
+    }
+
+    @Override
+    public long getTopLevelsSum(boolean isBid, int levelsNumber) {
+        return getSide(isBid).getTopLevelsSum(levelsNumber);
+    }
+
+    public void clear() {
+        bids.clear();
+        asks.clear();
+    }
+
+    private Side getSide(boolean isBid) {
+        return isBid ? bids : asks;
+    }
+}
@@ -0,0 +1,216 @@
+package velox.api.layer1.layers.tradinghelper;
+
+import java.util.Arrays;
+
+/**
+ * Working limit orders of a single instrument. Order ids are interned by
+ * {@link OrderIdTable}, level, side and position of each order are kept in
+ * primitive arrays indexed by its handle. Orders are also indexed, separately
+ * for each side, by price level in a sorted array of levels, so strategies can
+ * visit only the orders within a level range instead of walking every order on
+ * every update, without boxing levels.
+ * Not thread safe, callers are expected to hold the instrument lock.
+ */
+public class WorkingOrders implements WorkingOrdersView {
+
+    /**
+     * Handles of orders on one level
+     */
+    private static class LevelOrders {
+        private int[] handles = new int[4];
+        private int count = 0;
+    }
+
+    /**
+     * Levels of one side in ascending order. Working orders occupy few levels,
+     * so levels are inserted and removed by shifting the arrays. Objects of
+     * removed levels stay after the last level and are reused.
+     */
+    private static class Side {
+        private int[] sortedLevels = new int[8];
+        private LevelOrders[] levelOrders = new LevelOrders[8];
+        private int levelsCount = 0;
+
+        /**
+         * @return position of the level, or (-(insertion point) - 1) if there
+         *         are no orders on it
+         */
+        private int find(int level) {
+            return Arrays.binarySearch(sortedLevels, 0, levelsCount, level);
+        }
+
+        private LevelOrders getOrAdd(int level) {
+            int position = find(level);
+            if (position >= 0) {
+                return levelOrders[position];
+            }
+            position = -position - 1;
+            if (levelsCount == sortedLevels.length) {
+                sortedLevels = Arrays.copyOf(sortedLevels, levelsCount * 2);
+                levelOrders = Arrays.copyOf(levelOrders, levelsCount * 2);
+            }
+            LevelOrders added = levelOrders[levelsCount];
+            if (added == null) {
+                added = new LevelOrders();
+            }
+            System.arraycopy(sortedLevels, position, sortedLevels, position + 1, levelsCount - position);
+            System.arraycopy(levelOrders, position, levelOrders, position + 1, levelsCount - position);
+            sortedLevels[position] = level;
+            levelOrders[position] = added;
+            levelsCount++;
+            return added;
+        }
+
+        private void remove(int position) {
+            LevelOrders removed = levelOrders[position];
+            levelsCount--;
+            System.arraycopy(sortedLevels, position + 1, sortedLevels, position, levelsCount - position);
+            System.arraycopy(levelOrders, position + 1, levelOrders, position, levelsCount - position);
+            levelOrders[levelsCount] = removed;
+        }
+
+        private void clear() {
+            for (int i = 0; i < levelsCount; i++) {
+                levelOrders[i].count = 0;
+            }
+            levelsCount = 0;
+        }
+    }
+
+    private final OrderIdTable orderIds = new OrderIdTable();
+
+    private int[] levels = new int[0];
+    private boolean[] isBids = new boolean[0];
+    /**
+     * Position of the order in {@link LevelOrders#handles}
+     */
+    private int[] positions = new int[0];
+
+    private final Side bidSide = new Side();
+    private final Side askSide = new Side();
+
+    /**
+     * Add order or update level/side of an already known order
+     */
+    public void put(String orderId, int level, boolean isBid) {
+        int handle = orderIds.getHandle(orderId);
+        if (handle != OrderIdTable.NO_HANDLE) {
+            int index = OrderIdTable.getIndex(handle);
+            if (levels[index] == level && isBids[index] == isBid) {
+                return;
+            }
+            removeFromLevel(handle);
+        } else {
+            handle = orderIds.intern(orderId);
+            if (orderIds.getIndexCapacity() > levels.length) {
+                int capacity = orderIds.getIndexCapacity();
+                levels = Arrays.copyOf(levels, capacity);
+                isBids = Arrays.copyOf(isBids, capacity);
+                positions = Arrays.copyOf(positions, capacity);
+            }
+        }
+
+        int index = OrderIdTable.getIndex(handle);
+        levels[index] = level;
+        isBids[index] = isBid;
+
+        LevelOrders levelOrders = getSide(isBid).getOrAdd(level);
+        if (levelOrders.count == levelOrders.handles.length) {
+            levelOrders.handles = Arrays.copyOf(levelOrders.handles, levelOrders.count * 2);
+        }
+        positions[index] = levelOrders.count;
+        levelOrders.handles[levelOrders.count++] = handle;
+    }
+
+    public void remove(String orderId) {
+        int handle = orderIds.getHandle(orderId);
+        if (handle != OrderIdTable.NO_HANDLE) {
+            removeFromLevel(handle);
+            orderIds.release(handle);
+        }
+    }
+
+    public void clear() {
+        orderIds.clear();
+        bidSide.clear();
+        askSide.clear();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return orderIds.size() == 0;
+    }
+
+    @Override
+    public int size() {
+        return orderIds.size();
+    }
+
+    @Override
+    public boolean isEmpty(boolean isBid) {
+        return getSide(isBid).levelsCount == 0;
+    }
+
+    @Override
+    public String getOrderId(int orderHandle) {
+        return orderIds.getOrderId(orderHandle);
+    }
+
+    @Override
+    public void forEachOnSide(boolean isBid, OrderConsumer consumer) {
+        Side side = getSide(isBid);
+        forEach(side, 0, side.levelsCount, consumer);
+    }
+
+    @Override
+    public void forEachInRange(boolean isBid, int minLevel, int maxLevel, OrderConsumer consumer) {
+        if (minLevel > maxLevel) {
+            return;
+        }
+        Side side = getSide(isBid);
+        int from = side.find(minLevel);
+        if (from < 0) {
+            from = -from - 1;
+        }
+        int to = from;
+        while (to < side.levelsCount && side.sortedLevels[to] <= maxLevel) {
+            to++;
+        }
+        forEach(side, from, to, consumer);
+    }
+
+    private void forEach(Side side, int from, int to, OrderConsumer consumer) {
+        for (int position = from; position < to; position++) {
+            int level = side.sortedLevels[position];
+            LevelOrders levelOrders = side.levelOrders[position];
+            for (int i = 0; i < levelOrders.count; i++) {
+                consumer.accept(levelOrders.handles[i], level);
+            }
+        }
+    }
+
+    /**
+     * Swap removed order with the last one on its level
+     */
+    private void removeFromLevel(int handle) {
+        int index = OrderIdTable.getIndex(handle);
+        Side side = getSide(isBids[index]);
+        int levelPosition = side.find(levels[index]);
+        if (levelPosition < 0) {
+            return;
+        }
+        LevelOrders levelOrders = side.levelOrders[levelPosition];
+
+        int position = positions[index];
+        int lastHandle = levelOrders.handles[--levelOrders.count];
+        levelOrders.handles[position] = lastHandle;
+        positions[OrderIdTable.getIndex(lastHandle)] = position;
+        if (levelOrders.count == 0) {
+            side.remove(levelPosition);
+        }
+    }
+
+    private Side getSide(boolean isBid) {
+        return isBid ? bidSide : askSide;
+    }
+}
@@ -0,0 +1,36 @@
+package velox.api.layer1.layers.tradinghelper;
+
+/**
+ * Read access to working orders shared by helper strategies. Callers are
+ * expected to hold the instrument lock.
+ */
+public interface WorkingOrdersView {
+
+    /**
+     * Receives handles of orders, see {@link #getOrderId(int)}
+     */
+    interface OrderConsumer {
+        void accept(int orderHandle, int level);
+    }
+
+    boolean isEmpty();
+
+    int size();
+
+    boolean isEmpty(boolean isBid);
+
+    /**
+     * Broker id of the order, handle is valid while the order is working
+     */
+    String getOrderId(int orderHandle);
+
+    /**
+     * Visit all orders of one side
+     */
+    void forEachOnSide(boolean isBid, OrderConsumer consumer);
+
+    /**
+     * Visit orders of one side with levels in range [minLevel, maxLevel]
+     */
+    void forEachInRange(boolean isBid, int minLevel, int maxLevel, OrderConsumer consumer);
+}
@@ -5,6 +5,7 @@ import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.Insets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -24,10 +25,12 @@ import velox.api.layer1.common.Log;
 import velox.api.layer1.data.ExecutionInfo;
 import velox.api.layer1.data.InstrumentInfo;
 import velox.api.layer1.data.OrderInfoUpdate;
+import velox.api.layer1.data.OrderStatus;
 import velox.api.layer1.datastructure.events.OrderExecutedEvent;
 import velox.api.layer1.datastructure.events.OrderUpdatedEvent;
 import velox.api.layer1.datastructure.events.OrderUpdatesExecutionsAggregationEvent;
 import velox.api.layer1.layers.strategies.interfaces.CalculatedResultListener;
+import velox.api.layer1.layers.tradinghelper.OrderIdTable;
 import velox.api.layer1.layers.strategies.interfaces.InvalidateInterface;
 import velox.api.layer1.layers.strategies.interfaces.Layer1IndicatorColorInterface;
 import velox.api.layer1.layers.strategies.interfaces.OnlineCalculatable;
@@ -78,6 +81,65 @@ public class Layer1ApiAveragePositionPriceDemo implements Layer1ApiFinishable,
         }
     }
     
+    /**
+     * Side and instrument of known orders. Order ids are interned into
+     * {@link OrderIdTable} handles when the order is first seen, side and
+     * alias are kept in arrays indexed by the handle. Ids are released once
+     * the order reaches a final status, so the table only holds orders that
+     * can still be executed.
+     */
+    private static class OrdersInfo {
+        public static final int NO_INDEX = OrderIdTable.NO_HANDLE;
+        
+        private final OrderIdTable orderIds = new OrderIdTable();
+        private boolean[] isBuy = new boolean[16];
+        private String[] aliases = new String[16];
+        
+        public void put(OrderInfoUpdate orderInfoUpdate) {
+            if (isFinalStatus(orderInfoUpdate.status)) {
+                int handle = orderIds.getHandle(orderInfoUpdate.orderId);
+                if (handle != OrderIdTable.NO_HANDLE) {
+                    aliases[OrderIdTable.getIndex(handle)] = null;
+                    orderIds.release(handle);
+                }
+                return;
+            }
+            
+            int index = OrderIdTable.getIndex(orderIds.intern(orderInfoUpdate.orderId));
+            if (index >= isBuy.length) {
+                isBuy = Arrays.copyOf(isBuy, orderIds.getIndexCapacity());
+                aliases = Arrays.copyOf(aliases, orderIds.getIndexCapacity());
+            }
+            isBuy[index] = orderInfoUpdate.isBuy;
+            aliases[index] = orderInfoUpdate.instrumentAlias;
+        }
+        
+        /**
+         * @return index of the order or {@link #NO_INDEX} if it is unknown
+         */
+        public int getIndex(String orderId) {
+            int handle = orderIds.getHandle(orderId);
+            return handle == OrderIdTable.NO_HANDLE ? NO_INDEX : OrderIdTable.getIndex(handle);
+        }
+        
+        public boolean isBuy(int index) {
+            return isBuy[index];
+        }
+        
+        public String getAlias(int index) {
+            return aliases[index];
+        }
+        
+        /**
+         * Executions are reported before the update with the final status,
+         * so nothing arrives for the order after it
+         */
+        private static boolean isFinalStatus(OrderStatus status) {
+            return status == OrderStatus.FILLED || status == OrderStatus.CANCELLED
+                    || status == OrderStatus.REJECTED || status == OrderStatus.DISCONNECTED;
+        }
+    }
+    
     private static final String INDICATOR_NAME = "Average Price";
     private static final String LINE_COLOR_NAME = "Line color";
     private static final Color LINE_COLOR_DEFAULT = Color.BLUE;
@@ -86,8 +148,7 @@ public class Layer1ApiAveragePositionPriceDemo implements Layer1ApiFinishable,
     
     private Map<String, Double> pipsMap = new ConcurrentHashMap<>();
     
-    private Map<String, Map<String, Boolean>> aliasToBuyInfo = new ConcurrentHashMap<>();
-    private Map<String, Map<String, String>> aliasToOrderAliasInfo = new ConcurrentHashMap<>();
+    private Map<String, OrdersInfo> aliasToOrdersInfo = new ConcurrentHashMap<>();
     
     private DataStructureInterface dataStructureInterface;
     
@@ -127,10 +188,9 @@ public class Layer1ApiAveragePositionPriceDemo implements Layer1ApiFinishable,
         return (OrderUpdatesExecutionsAggregationEvent) interval.events.get(StandardEvents.ORDER.toString());
     }
     
-    private void updateState(CurrentState state, ExecutionInfo executionInfo, Map<String, Boolean> orderIdToIsBuy) {
-        Boolean isBuy = orderIdToIsBuy.get(executionInfo.orderId);
-        
-        if (isBuy != null && executionInfo.size != 0) {
+    private void updateState(CurrentState state, ExecutionInfo executionInfo, OrdersInfo ordersInfo, int orderIndex) {
+        if (orderIndex != OrdersInfo.NO_INDEX && executionInfo.size != 0) {
+            boolean isBuy = ordersInfo.isBuy(orderIndex);
             
             int positionDelta = executionInfo.size;
             if (!isBuy) {
@@ -164,25 +224,32 @@ public class Layer1ApiAveragePositionPriceDemo implements Layer1ApiFinishable,
         return ((a > 0 && b < 0) || (a < 0 && b > 0));
     }
     
-    private void updateState(String alias, CurrentState state, OrderUpdatesExecutionsAggregationEvent aggregationEvent, Map<String, Boolean> orderIdToIsBuy,
-            Map<String, String> orderIdToAlias) {
+    private void updateState(String alias, CurrentState state, OrderUpdatesExecutionsAggregationEvent aggregationEvent, OrdersInfo ordersInfo) {
         for (Object object : aggregationEvent.orderUpdates) {
             if (object instanceof OrderUpdatedEvent) {
                 OrderUpdatedEvent event = (OrderUpdatedEvent) object;
-                orderIdToIsBuy.put(event.orderInfoUpdate.orderId, event.orderInfoUpdate.isBuy);
-                orderIdToAlias.put(event.orderInfoUpdate.orderId, event.orderInfoUpdate.instrumentAlias);
+                ordersInfo.put(event.orderInfoUpdate);
             } else if (object instanceof OrderExecutedEvent) {
                 OrderExecutedEvent event = (OrderExecutedEvent) object;
-                String orderAlias = orderIdToAlias.get(event.executionInfo.orderId);
-                if (alias.equals(orderAlias)) {
-                    updateState(state, event.executionInfo, orderIdToIsBuy);
-                }
+                onOrderExecuted(alias, state, event.executionInfo, ordersInfo);
             } else {
                 throw new IllegalArgumentException("Unknown event: " + object);
             }
         }
     }
     
+    /**
+     * @return true if the execution belongs to the instrument and state was updated
+     */
+    private boolean onOrderExecuted(String alias, CurrentState state, ExecutionInfo executionInfo, OrdersInfo ordersInfo) {
+        int orderIndex = ordersInfo.getIndex(executionInfo.orderId);
+        if (orderIndex != OrdersInfo.NO_INDEX && alias.equals(ordersInfo.getAlias(orderIndex))) {
+            updateState(state, executionInfo, ordersInfo, orderIndex);
+            return true;
+        }
+        return false;
+    }
+    
     @Override
     public StrategyPanel[] getCustomGuiFor(String alias, String indicatorName) {
         StrategyPanel panel = new StrategyPanel("Colors", new GridBagLayout());
@@ -246,20 +313,18 @@ public class Layer1ApiAveragePositionPriceDemo implements Layer1ApiFinishable,
             throw new IllegalStateException("Unknown pips for alias " + alias);
         }
         
-        Map<String, Boolean> orderIdToIsBuy = new HashMap<>();
-        Map<String, String> orderIdToAlias = new HashMap<>();
+        OrdersInfo ordersInfo = new OrdersInfo();
         
         CurrentState state = new CurrentState(pips);
-        updateState(alias, state, getOrderEvent(intervalResponse.get(0)), orderIdToIsBuy, orderIdToAlias);
+        updateState(alias, state, getOrderEvent(intervalResponse.get(0)), ordersInfo);
         
         for (int i = 1; i <= intervalsNumber; ++i) {
-            updateState(alias, state, getOrderEvent(intervalResponse.get(i)), orderIdToIsBuy, orderIdToAlias);
+            updateState(alias, state, getOrderEvent(intervalResponse.get(i)), ordersInfo);
             
             listener.provideResponse(state.getLineY());
         }
         
-        aliasToBuyInfo.put(alias, orderIdToIsBuy);
-        aliasToOrderAliasInfo.put(alias, orderIdToAlias);
+        aliasToOrdersInfo.put(alias, ordersInfo);
         
         listener.setCompleted();
         
@@ -281,32 +346,20 @@ public class Layer1ApiAveragePositionPriceDemo implements Layer1ApiFinishable,
             throw new IllegalStateException("Unknown pips for alias " + alias);
         }
         
-        if (!aliasToBuyInfo.containsKey(alias)) {
-            aliasToBuyInfo.put(alias, new HashMap<>());
-        }
-        
-        if (!aliasToOrderAliasInfo.containsKey(alias)) {
-            aliasToOrderAliasInfo.put(alias, new HashMap<>());
-        }
-        
-        Map<String, Boolean> orderIdToIsBuy = aliasToBuyInfo.get(alias);
-        Map<String, String> orderIdToAlias = aliasToOrderAliasInfo.get(alias);
+        OrdersInfo ordersInfo = aliasToOrdersInfo.computeIfAbsent(alias, k -> new OrdersInfo());
         
         CurrentState state = new CurrentState(pips);
-        updateState(alias, state, getOrderEvent(treeResponse), orderIdToIsBuy, orderIdToAlias);
+        updateState(alias, state, getOrderEvent(treeResponse), ordersInfo);
         
         return new OnlineValueCalculatorAdapter() {
             @Override
             public void onOrderUpdated(OrderInfoUpdate orderInfoUpdate) {
-                orderIdToIsBuy.put(orderInfoUpdate.orderId, orderInfoUpdate.isBuy);
-                orderIdToAlias.put(orderInfoUpdate.orderId, orderInfoUpdate.instrumentAlias);
+                ordersInfo.put(orderInfoUpdate);
             }
             
             @Override
             public void onOrderExecuted(ExecutionInfo executionInfo) {
-                String orderAlias = orderIdToAlias.get(executionInfo.orderId);
-                if (alias.equals(orderAlias)) {
-                    updateState(state, executionInfo, orderIdToIsBuy);
+                if (Layer1ApiAveragePositionPriceDemo.this.onOrderExecuted(alias, state, executionInfo, ordersInfo)) {
                     listener.accept(state.getLineY());
                 }
             }
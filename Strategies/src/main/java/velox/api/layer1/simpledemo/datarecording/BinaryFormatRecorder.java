@@ -0,0 +1,218 @@
+package velox.api.layer1.simpledemo.datarecording;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+import velox.api.layer1.data.InstrumentInfo;
+
+/**
+ * Compact binary recording of depth and trades, several times smaller and
+ * cheaper to write than {@link SpecificFormatRecorder}. Records are collected
+ * in a large buffer and written through a {@link FileChannel} when the buffer
+ * fills up or with the first record more than a second after the last write,
+ * instead of flushing every event.
+ * Orders are rare and still recorded as text. {@code BinaryFormatConverter}
+ * from the tools source set turns the recording back into the text format.
+ * <p>
+ * All integers are zigzag varints, strings are a byte length followed by
+ * UTF-8 bytes and doubles are 8 bytes big-endian. File starts with
+ * {@link #MAGIC}, recording start time and data source, followed by records:
+ * a tag, time since the previous record in milliseconds and then
+ * <ul>
+ * <li>{@link #TAG_CONTRACT_DETAILS}: id, exchange, symbol, type, pips,
+ * multiplier. Instruments are numbered in the order they are added.</li>
+ * <li>{@link #TAG_BID_UPDATE}, {@link #TAG_ASK_UPDATE}: instrument number,
+ * price in ticks relative to the previous price of the instrument, size</li>
+ * <li>{@link #TAG_TRADE}: instrument number, relative price in ticks, size,
+ * aggressor, OTC code</li>
+ * <li>{@link #TAG_TRADE_OFF_TICK}: as trade but with the price as a double in
+ * real units, for trades between ticks. Does not change the previous
+ * price.</li>
+ * </ul>
+ */
+public class BinaryFormatRecorder implements FormatRecorder {
+
+    public static final int MAGIC = 0x46524231; // "FRB1"
+
+    public static final byte TAG_CONTRACT_DETAILS = 1;
+    public static final byte TAG_BID_UPDATE = 2;
+    public static final byte TAG_ASK_UPDATE = 3;
+    public static final byte TAG_TRADE = 4;
+    public static final byte TAG_TRADE_OFF_TICK = 5;
+
+    private static final String EOL = System.getProperty("line.separator");
+    private static final int BUFFER_SIZE = 1 << 20;
+    /**
+     * Upper bound of a record without strings
+     */
+    private static final int MAX_RECORD_SIZE = 64;
+    private static final long FLUSH_INTERVAL_MS = 1000;
+    private static final double TICK_TOLERANCE = 1e-6;
+
+    private static class InstrumentState {
+        final int number;
+        final double pips;
+        long lastPrice = 0;
+
+        InstrumentState(int number, double pips) {
+            this.number = number;
+            this.pips = pips;
+        }
+    }
+
+    private final FileChannel depthChannel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final FileWriter ordersWriter;
+
+    private final Map<Integer, InstrumentState> instruments = new HashMap<>();
+    /**
+     * Updates mostly come in runs of one instrument, so map is only looked up
+     * when the instrument changes
+     */
+    private int lastId;
+    private InstrumentState lastInstrument;
+
+    private long lastTime;
+    private long lastFlushTime;
+
+    public BinaryFormatRecorder(long time, File depth, File orders, String dataSource) throws IOException {
+        depthChannel = FileChannel.open(depth.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        ordersWriter = new FileWriter(orders);
+
+        lastTime = time;
+        lastFlushTime = time;
+        byte[] dataSourceBytes = dataSource.getBytes(StandardCharsets.UTF_8);
+        ensureCapacity(MAX_RECORD_SIZE + dataSourceBytes.length);
+        buffer.putInt(MAGIC);
+        buffer.putLong(time);
+        writeBytes(dataSourceBytes);
+    }
+
+    @Override
+    public void onTrade(int id, double price, int size, int aggressor, int otcCode) throws IOException {
+        InstrumentState instrument = getInstrument(id);
+        if (instrument == null) {
+            return;
+        }
+
+        double ticks = price / instrument.pips;
+        long roundedTicks = Math.round(ticks);
+        boolean isOnTick = Math.abs(ticks - roundedTicks) < TICK_TOLERANCE;
+
+        startRecord(isOnTick ? TAG_TRADE : TAG_TRADE_OFF_TICK, MAX_RECORD_SIZE);
+        writeVarLong(instrument.number);
+        if (isOnTick) {
+            writeVarLong(roundedTicks - instrument.lastPrice);
+            instrument.lastPrice = roundedTicks;
+        } else {
+            buffer.putDouble(price);
+        }
+        writeVarLong(size);
+        writeVarLong(aggressor);
+        writeVarLong(otcCode);
+    }
+
+    @Override
+    public void onDepth(int id, boolean isBid, double price, int size) throws IOException {
+        InstrumentState instrument = getInstrument(id);
+        if (instrument == null) {
+            return;
+        }
+
+        long ticks = Math.round(price / instrument.pips);
+        startRecord(isBid ? TAG_BID_UPDATE : TAG_ASK_UPDATE, MAX_RECORD_SIZE);
+        writeVarLong(instrument.number);
+        writeVarLong(ticks - instrument.lastPrice);
+        writeVarLong(size);
+        instrument.lastPrice = ticks;
+    }
+
+    @Override
+    public void onInstrumentAdded(int id, InstrumentInfo instrumentInfo) throws IOException {
+        InstrumentState instrument = new InstrumentState(instruments.size(), instrumentInfo.pips);
+        instruments.put(id, instrument);
+        lastInstrument = null;
+
+        byte[] exchange = instrumentInfo.exchange.getBytes(StandardCharsets.UTF_8);
+        byte[] symbol = instrumentInfo.symbol.getBytes(StandardCharsets.UTF_8);
+        byte[] type = instrumentInfo.type.getBytes(StandardCharsets.UTF_8);
+        startRecord(TAG_CONTRACT_DETAILS, MAX_RECORD_SIZE + exchange.length + symbol.length + type.length);
+        writeVarLong(id);
+        writeBytes(exchange);
+        writeBytes(symbol);
+        writeBytes(type);
+        buffer.putDouble(instrumentInfo.pips);
+        buffer.putDouble(instrumentInfo.multiplier);
+        // Instruments are added rarely, make sure they reach the file even if no data follows
+        flush();
+    }
+
+    @Override
+    public void onOrderData(String data) throws IOException {
+        ordersWriter.append(data).append(EOL);
+        ordersWriter.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        depthChannel.close();
+        ordersWriter.close();
+    }
+
+    private InstrumentState getInstrument(int id) {
+        if (lastInstrument == null || id != lastId) {
+            lastInstrument = instruments.get(id);
+            lastId = id;
+        }
+        return lastInstrument;
+    }
+
+    private void startRecord(byte tag, int recordSize) throws IOException {
+        long time = System.currentTimeMillis();
+        if (time - lastFlushTime >= FLUSH_INTERVAL_MS) {
+            flush();
+        }
+        ensureCapacity(recordSize);
+        buffer.put(tag);
+        writeVarLong(time - lastTime);
+        lastTime = time;
+    }
+
+    private void ensureCapacity(int size) throws IOException {
+        if (buffer.remaining() < size) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            depthChannel.write(buffer);
+        }
+        buffer.clear();
+        lastFlushTime = System.currentTimeMillis();
+    }
+
+    private void writeBytes(byte[] bytes) {
+        writeVarLong(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private void writeVarLong(long value) {
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            buffer.put((byte) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        buffer.put((byte) zigzag);
+    }
+}
@@ -6,6 +6,7 @@ import java.util.Map;
 import java.util.TreeMap;
 
 import javax.swing.JCheckBox;
+import javax.swing.JComboBox;
 
 import velox.api.layer1.Layer1ApiDataAdapter;
 import velox.api.layer1.Layer1ApiFinishable;
@@ -27,7 +28,8 @@ import velox.gui.StrategyPanel;
 /**
  * Simple demo for recording feed. It takes all data passing through the
  * strategy and writes it to text file in working
- * directory("C:\Bookmap\Config").
+ * directory("C:\Bookmap\Config"), or to a compact binary file if selected in
+ * the settings. Changing the format starts a new file.
  * In replay mode you should not use rewind functionality with this strategy.
  */
 
@@ -37,17 +39,46 @@ import velox.gui.StrategyPanel;
 public class FeedRecorder implements Layer1CustomPanelsGetter, Layer1ApiDataAdapter, Layer1ApiFinishable,
         Layer1ApiInstrumentAdapter, Layer1ApiTradingAdapter {
 
-    private SpecificFormatRecorder recorder;
+    private enum RecordingFormat {
+        TEXT("Text"),
+        BINARY("Binary");
+
+        private final String title;
+
+        RecordingFormat(String title) {
+            this.title = title;
+        }
+
+        @Override
+        public String toString() {
+            return title;
+        }
+    }
+
+    private final String dataSource;
+    private FormatRecorder recorder;
+    private RecordingFormat recorderFormat;
+    /**
+     * Format chosen in the settings, data thread switches the recorder to it
+     * on the next event
+     */
+    private volatile RecordingFormat selectedFormat = RecordingFormat.TEXT;
+    /**
+     * Set by {@link #finish()}, data may still arrive afterwards and is
+     * dropped. Guarded by this, like all writes to the recorder.
+     */
+    private boolean isClosed = false;
     private Map<String, InstrumentInfo> instruments = new TreeMap<>();
     private Map<String, Integer> instrumentIds = new TreeMap<>();
     private JCheckBox recordTrades = new JCheckBox("Record trades", true);
     private JCheckBox recordOrders = new JCheckBox("Record orders", true);
+    private JComboBox<RecordingFormat> recordingFormat = new JComboBox<>(RecordingFormat.values());
 
     public FeedRecorder(Layer1ApiProvider provider) throws IOException {
-        File depthRecordsFile = new File(System.getProperty("user.dir"), "FeedRecorder_demo_depth-" + System.currentTimeMillis() + ".txt");
-        File ordersRecordsFile = new File(System.getProperty("user.dir"), "FeedRecorder_demo_orders-"  + System.currentTimeMillis() + ".txt");
-        recorder = new SpecificFormatRecorder(System.currentTimeMillis(), depthRecordsFile, ordersRecordsFile,
-                provider.getSource());
+        dataSource = provider.getSource();
+        recorder = createRecorder(selectedFormat);
+        recorderFormat = selectedFormat;
+        recordingFormat.addActionListener(e -> selectedFormat = (RecordingFormat) recordingFormat.getSelectedItem());
         // register listener to get data
         ListenableHelper.addListeners(provider, this);
     }
@@ -57,14 +88,15 @@ public class FeedRecorder implements Layer1CustomPanelsGetter, Layer1ApiDataAdap
         StrategyPanel settingsPanel = new StrategyPanel("FeedRecorder demo");
         settingsPanel.add(recordTrades);
         settingsPanel.add(recordOrders);
+        settingsPanel.add(recordingFormat);
         return new StrategyPanel[] { settingsPanel };
     }
 
     @Override
-    public void onTrade(String alias, double price, int size, TradeInfo tradeInfo) {
-        if (recordTrades.isEnabled()) {
+    public synchronized void onTrade(String alias, double price, int size, TradeInfo tradeInfo) {
+        if (recordTrades.isEnabled() && !isClosed) {
             try {
-                recorder.onTrade(instrumentIds.get(alias), instruments.get(alias).pips * price, size,
+                getRecorder().onTrade(instrumentIds.get(alias), instruments.get(alias).pips * price, size,
                         tradeInfo.isBidAggressor ? 1 : -1, 0);
             } catch (IOException e) {
                 throwRuntimeException(e);
@@ -73,31 +105,77 @@ public class FeedRecorder implements Layer1CustomPanelsGetter, Layer1ApiDataAdap
     }
 
     @Override
-    public void onDepth(String alias, boolean isBid, int price, int size) {
+    public synchronized void onDepth(String alias, boolean isBid, int price, int size) {
+        if (isClosed) {
+            return;
+        }
         try {
-            recorder.onDepth(instrumentIds.get(alias), isBid, instruments.get(alias).pips * price, size);
+            getRecorder().onDepth(instrumentIds.get(alias), isBid, instruments.get(alias).pips * price, size);
         } catch (IOException e) {
             throwRuntimeException(e);
         }
     }
 
     @Override
-    public void finish() {
-        // We could close recorder here if it would be something more complex
+    public synchronized void finish() {
+        if (isClosed) {
+            return;
+        }
+        isClosed = true;
+        // Binary recorder buffers data, it has to be written before exit
+        try {
+            recorder.close();
+        } catch (IOException e) {
+            throwRuntimeException(e);
+        }
     }
 
     @Override
-    public void onInstrumentAdded(String alias, InstrumentInfo instrumentInfo) {
-        instruments.put(alias, instrumentInfo);
-        int id = (int)(Math.random() * Integer.MAX_VALUE);
-        instrumentIds.put(alias, id);
+    public synchronized void onInstrumentAdded(String alias, InstrumentInfo instrumentInfo) {
+        if (isClosed) {
+            return;
+        }
         try {
+            // Switch format before the instrument is known, so it is not recorded twice
+            FormatRecorder recorder = getRecorder();
+            instruments.put(alias, instrumentInfo);
+            int id = (int)(Math.random() * Integer.MAX_VALUE);
+            instrumentIds.put(alias, id);
             recorder.onInstrumentAdded(id, instrumentInfo);
         } catch (IOException e) {
             throwRuntimeException(e);
         }
     }
 
+    private FormatRecorder createRecorder(RecordingFormat format) throws IOException {
+        long time = System.currentTimeMillis();
+        File ordersRecordsFile = new File(System.getProperty("user.dir"), "FeedRecorder_demo_orders-" + time + ".txt");
+        if (format == RecordingFormat.BINARY) {
+            File depthRecordsFile = new File(System.getProperty("user.dir"), "FeedRecorder_demo_depth-" + time + ".bin");
+            return new BinaryFormatRecorder(time, depthRecordsFile, ordersRecordsFile, dataSource);
+        } else {
+            File depthRecordsFile = new File(System.getProperty("user.dir"), "FeedRecorder_demo_depth-" + time + ".txt");
+            return new SpecificFormatRecorder(time, depthRecordsFile, ordersRecordsFile, dataSource);
+        }
+    }
+
+    /**
+     * Current recorder, switched to the selected format first if it changed
+     */
+    private FormatRecorder getRecorder() throws IOException {
+        RecordingFormat format = selectedFormat;
+        if (format != recorderFormat) {
+            recorder.close();
+            recorder = createRecorder(format);
+            recorderFormat = format;
+            // New file has to describe instruments again
+            for (Map.Entry<String, InstrumentInfo> entry : instruments.entrySet()) {
+                recorder.onInstrumentAdded(instrumentIds.get(entry.getKey()), entry.getValue());
+            }
+        }
+        return recorder;
+    }
+
     private void throwRuntimeException(Throwable e) {
         throw new RuntimeException(e);
     }
@@ -109,10 +187,10 @@ public class FeedRecorder implements Layer1CustomPanelsGetter, Layer1ApiDataAdap
     }
 
     @Override
-    public void onOrderUpdated(OrderInfoUpdate orderInfoUpdate) {
-        if (recordOrders.isEnabled()) {
+    public synchronized void onOrderUpdated(OrderInfoUpdate orderInfoUpdate) {
+        if (recordOrders.isEnabled() && !isClosed) {
             try {
-                recorder.onOrderData(orderInfoUpdate.toString());
+                getRecorder().onOrderData(orderInfoUpdate.toString());
             } catch (IOException e) {
                 throwRuntimeException(e);
             }
@@ -120,10 +198,10 @@ public class FeedRecorder implements Layer1CustomPanelsGetter, Layer1ApiDataAdap
     }
 
     @Override
-    public void onOrderExecuted(ExecutionInfo executionInfo) {
-        if (recordOrders.isEnabled()) {
+    public synchronized void onOrderExecuted(ExecutionInfo executionInfo) {
+        if (recordOrders.isEnabled() && !isClosed) {
             try {
-                recorder.onOrderData(executionInfo.toString());
+                getRecorder().onOrderData(executionInfo.toString());
             } catch (IOException e) {
                 throwRuntimeException(e);
             }
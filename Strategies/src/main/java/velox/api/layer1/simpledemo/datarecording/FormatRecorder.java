@@ -0,0 +1,25 @@
+package velox.api.layer1.simpledemo.datarecording;
+
+import java.io.IOException;
+
+import velox.api.layer1.data.InstrumentInfo;
+
+/**
+ * Recording of feed data into one of the formats {@link FeedRecorder} supports.
+ * Prices are passed in real units, not in ticks.
+ */
+public interface FormatRecorder {
+
+    void onTrade(int id, double price, int size, int aggressor, int otcCode) throws IOException;
+
+    void onDepth(int id, boolean isBid, double price, int size) throws IOException;
+
+    void onInstrumentAdded(int id, InstrumentInfo instrumentInfo) throws IOException;
+
+    void onOrderData(String data) throws IOException;
+
+    /**
+     * Write everything that is buffered and close the files
+     */
+    void close() throws IOException;
+}
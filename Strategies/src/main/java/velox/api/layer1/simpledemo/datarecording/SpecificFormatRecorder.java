@@ -12,7 +12,7 @@ import velox.api.layer1.data.InstrumentInfo;
  * only reason those exist is to make it readable by one of our internal tools
  * for testing purpose.
  */
-public class SpecificFormatRecorder {
+public class SpecificFormatRecorder implements FormatRecorder {
 
     private static final String EOL = System.getProperty("line.separator");
     private static final char DELIMITER = ',';
@@ -32,6 +32,7 @@ public class SpecificFormatRecorder {
                 .append(EOL);
     }
 
+    @Override
     public void onTrade(int id, double price, int size, int aggressor, int otcCode) throws IOException {
         depthWriter
                 .append(SpecificFormatTags.ON_TRADE)
@@ -45,6 +46,7 @@ public class SpecificFormatRecorder {
         depthWriter.flush();
     }
 
+    @Override
     public void onDepth(int id, boolean isBid, double price, int size) throws IOException {
         depthWriter
                 .append(SpecificFormatTags.ON_BOOK_UPDATE)
@@ -58,6 +60,7 @@ public class SpecificFormatRecorder {
         depthWriter.flush();
     }
 
+    @Override
     public void onInstrumentAdded(int id, InstrumentInfo instrumentInfo) throws IOException {
         depthWriter
                 .append(SpecificFormatTags.ON_CONTRACT_DETAILS)
@@ -73,8 +76,15 @@ public class SpecificFormatRecorder {
         depthWriter.flush();
     }
 
+    @Override
     public void onOrderData(String data) throws IOException {
         ordersWriter.append(data).append(EOL);
         ordersWriter.flush();
     }
+
+    @Override
+    public void close() throws IOException {
+        depthWriter.close();
+        ordersWriter.close();
+    }
 }
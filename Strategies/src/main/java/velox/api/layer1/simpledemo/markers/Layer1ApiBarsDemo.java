@@ -59,7 +59,7 @@ public class Layer1ApiBarsDemo implements
     Layer1ApiInstrumentListener,
     OnlineCalculatable {
  
-    private static class BarEvent implements CustomGeneratedEvent, DataCoordinateMarker {
+    static class BarEvent implements CustomGeneratedEvent, DataCoordinateMarker {
         private static final long serialVersionUID = 1L;
         /**
          * While bar is being accumulated we store open time here, then we change it to
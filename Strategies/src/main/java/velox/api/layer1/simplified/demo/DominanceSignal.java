@@ -0,0 +1,69 @@
+package velox.api.layer1.simplified.demo;
+
+import velox.api.layer1.messages.indicators.Layer1ApiUserMessageModifyIndicator;
+import velox.api.layer1.simplified.Api;
+import velox.api.layer1.simplified.Indicator;
+
+import java.awt.*;
+
+/**
+ * Volume signal indicator: dominance of the interval normalized to
+ * [-scale, scale], either by a fixed maximum dominance or by the maximum
+ * absolute dominance of recent intervals, and colored by its strength.
+ */
+class DominanceSignal {
+
+    private final double scale;
+    private final double fixedMaxDominance;
+    private final WindowedStatistics dominanceWindow;
+
+    private Indicator signalIndicator;
+
+    private DominanceSignal(double scale, double fixedMaxDominance, WindowedStatistics dominanceWindow) {
+        this.scale = scale;
+        this.fixedMaxDominance = fixedMaxDominance;
+        this.dominanceWindow = dominanceWindow;
+    }
+
+    static DominanceSignal withFixedMax(double scale, double maxDominance) {
+        return new DominanceSignal(scale, maxDominance, null);
+    }
+
+    /**
+     * @param windowSize number of intervals the maximum dominance is taken over
+     */
+    static DominanceSignal withWindow(double scale, int windowSize) {
+        return new DominanceSignal(scale, Double.NaN, new WindowedStatistics(windowSize));
+    }
+
+    void register(Api api, String indicatorPrefix) {
+        signalIndicator = api.registerIndicator(indicatorPrefix + "Volume Signal", Layer1ApiUserMessageModifyIndicator.GraphType.PRIMARY);
+    }
+
+    /**
+     * Add point for the interval
+     * @return normalized score
+     */
+    double update(double dominance) {
+        double maxVolumeDominance;
+        if (dominanceWindow == null) {
+            maxVolumeDominance = fixedMaxDominance;
+        } else {
+            dominanceWindow.add(Math.abs(dominance));
+            maxVolumeDominance = dominanceWindow.getMax();
+        }
+
+        double normalizedScore = Math.max(-scale, Math.min(scale, (dominance / maxVolumeDominance) * scale));
+        signalIndicator.addPoint(normalizedScore);
+
+        // Set color based on the normalized score, max intensity at +-scale
+        if (normalizedScore > 0) {
+            signalIndicator.setColor(new Color(0, (int) (255 * (normalizedScore / scale)), 0));
+        } else if (normalizedScore < 0) {
+            signalIndicator.setColor(new Color((int) (255 * (-normalizedScore / scale)), 0, 0));
+        } else {
+            signalIndicator.setColor(Color.GRAY);
+        }
+        return normalizedScore;
+    }
+}
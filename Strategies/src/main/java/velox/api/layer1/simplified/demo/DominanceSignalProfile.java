@@ -0,0 +1,60 @@
+package velox.api.layer1.simplified.demo;
+
+import velox.api.layer1.data.InstrumentInfo;
+import velox.api.layer1.simplified.Api;
+
+/**
+ * Volume signal with optional markers placed when the score reaches the threshold
+ */
+public class DominanceSignalProfile implements PowerProfile {
+
+    private final String name;
+    private final DominanceSignal signal;
+    private final double markerThreshold;
+    private final SignalMarkers markers;
+
+    private String alias;
+    private PowerEventLog eventLog;
+
+    /**
+     * @param markerThreshold score that places markers, NaN if markers are not used
+     */
+    DominanceSignalProfile(String name, DominanceSignal signal, double markerThreshold) {
+        this.name = name;
+        this.signal = signal;
+        this.markerThreshold = markerThreshold;
+        markers = Double.isNaN(markerThreshold) ? null : new SignalMarkers();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void initialize(String alias, InstrumentInfo instrumentInfo, Api api, String indicatorPrefix,
+            PowerEventLog eventLog) {
+        this.alias = alias;
+        this.eventLog = eventLog;
+        signal.register(api, indicatorPrefix);
+        if (markers != null) {
+            markers.register(api, indicatorPrefix);
+        }
+    }
+
+    @Override
+    public void onInterval(PowerIntervalData data) {
+        double normalizedScore = signal.update(data.getDominance());
+
+        // Place visual markers for strong buy/sell signals
+        if (markers != null) {
+            if (normalizedScore >= markerThreshold) {
+                eventLog.signal(alias, name, true, data.getLatestBidPrice(), normalizedScore);
+                markers.place(true, data.getLatestBidPrice());
+            } else if (normalizedScore <= -markerThreshold) {
+                eventLog.signal(alias, name, false, data.getLatestAskPrice(), normalizedScore);
+                markers.place(false, data.getLatestAskPrice());
+            }
+        }
+    }
+}
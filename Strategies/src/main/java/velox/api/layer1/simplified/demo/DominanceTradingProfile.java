@@ -0,0 +1,126 @@
+package velox.api.layer1.simplified.demo;
+
+import velox.api.layer1.data.InstrumentInfo;
+import velox.api.layer1.messages.indicators.Layer1ApiUserMessageModifyIndicator;
+import velox.api.layer1.simplified.Api;
+import velox.api.layer1.simplified.Indicator;
+
+import java.awt.*;
+
+/**
+ * Simulated trading on the volume signal: buys 100 shares on a strong buy
+ * signal and sells everything on profit target, stop loss or a sell signal.
+ */
+public class DominanceTradingProfile implements PowerProfile {
+
+    private static final int WINDOW_SIZE = 60; // Example window size in seconds (1 minute)
+    private static final int QUANTITY = 100;
+
+    private final String name;
+    private final double signalThresholdBuy;
+    private final double signalThresholdSell;
+    private final double sellProfitThreshold;
+    private final double sellLossThreshold;
+    private final double orderImbalanceThreshold;
+    private final boolean isVwapShown;
+
+    private final DominanceSignal signal = DominanceSignal.withWindow(10, WINDOW_SIZE);
+    private final SignalMarkers markers = new SignalMarkers();
+    private Indicator profitIndicator;
+    private Indicator vwapIndicator;
+
+    private String alias;
+    private PowerEventLog eventLog;
+
+    private int sharesOwned = 0;
+    private double totalProfit = 0.0;
+    private double buyPrice = 0.0;
+
+    /**
+     * @param signalThresholdBuy score that triggers buying
+     * @param signalThresholdSell score that triggers selling
+     * @param sellProfitThreshold sell if price has increased by this ratio
+     * @param sellLossThreshold sell if price has decreased by this ratio
+     * @param orderImbalanceThreshold minimal (buy - sell) / (buy + sell) volume
+     *            of the interval to buy
+     * @param isVwapShown if true, VWAP indicator is added
+     */
+    public DominanceTradingProfile(String name, double signalThresholdBuy, double signalThresholdSell,
+            double sellProfitThreshold, double sellLossThreshold, double orderImbalanceThreshold, boolean isVwapShown) {
+        this.name = name;
+        this.signalThresholdBuy = signalThresholdBuy;
+        this.signalThresholdSell = signalThresholdSell;
+        this.sellProfitThreshold = sellProfitThreshold;
+        this.sellLossThreshold = sellLossThreshold;
+        this.orderImbalanceThreshold = orderImbalanceThreshold;
+        this.isVwapShown = isVwapShown;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void initialize(String alias, InstrumentInfo instrumentInfo, Api api, String indicatorPrefix,
+            PowerEventLog eventLog) {
+        this.alias = alias;
+        this.eventLog = eventLog;
+        signal.register(api, indicatorPrefix);
+        markers.register(api, indicatorPrefix);
+
+        profitIndicator = api.registerIndicator(indicatorPrefix + "Profit", Layer1ApiUserMessageModifyIndicator.GraphType.PRIMARY);
+        profitIndicator.setColor(Color.BLUE);
+
+        if (isVwapShown) {
+            vwapIndicator = api.registerIndicator(indicatorPrefix + "VWAP", Layer1ApiUserMessageModifyIndicator.GraphType.PRIMARY);
+            vwapIndicator.setColor(Color.ORANGE);
+        }
+    }
+
+    @Override
+    public void onInterval(PowerIntervalData data) {
+        if (isVwapShown && !Double.isNaN(data.getVwap())) {
+            vwapIndicator.addPoint(data.getVwap());
+        }
+
+        double normalizedScore = signal.update(data.getDominance());
+
+        // Check for sell conditions
+        if (sharesOwned > 0) {
+            double currentPrice = data.getMidPrice();
+            if (currentPrice >= buyPrice * sellProfitThreshold || currentPrice <= buyPrice * sellLossThreshold || normalizedScore <= signalThresholdSell) {
+                sellShares(sharesOwned, currentPrice); // Sell all shares
+            }
+        }
+
+        double totalBuyVolume = data.getTotalBuyVolume();
+        double totalSellVolume = data.getTotalSellVolume();
+        double orderImbalance = (totalBuyVolume - totalSellVolume) / (totalBuyVolume + totalSellVolume);
+
+        // Place visual markers for strong buy signals
+        if (normalizedScore >= signalThresholdBuy && totalBuyVolume > totalSellVolume && orderImbalance > orderImbalanceThreshold) {
+            double markerPrice = data.getLatestBidPrice();
+            eventLog.signal(alias, name, true, markerPrice, normalizedScore);
+            markers.place(true, markerPrice);
+            buyShares(QUANTITY, markerPrice);
+        }
+    }
+
+    private void buyShares(int quantity, double price) {
+        sharesOwned += quantity;
+        buyPrice = price;
+        totalProfit -= quantity * price; // Subtract the cost of buying shares from total profit
+        profitIndicator.addPoint(totalProfit);
+        eventLog.fill(alias, name, true, quantity, price, totalProfit);
+    }
+
+    private void sellShares(int quantity, double price) {
+        if (sharesOwned >= quantity) {
+            sharesOwned -= quantity;
+            totalProfit += quantity * price; // Add the revenue from selling shares to total profit
+            profitIndicator.addPoint(totalProfit);
+            eventLog.fill(alias, name, false, quantity, price, totalProfit);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package velox.api.layer1.simplified.demo;
+
+/**
+ * Sizes of price levels of one side of the book, price to size map with open
+ * addressing over primitive arrays. Levels with zero size are removed, so the
+ * table only grows with the number of levels that are present at once.
+ * Not thread safe.
+ */
+final class LevelSizes {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int[] prices = new int[INITIAL_CAPACITY];
+    /**
+     * Size of the level, 0 marks a free slot
+     */
+    private int[] sizes = new int[INITIAL_CAPACITY];
+    private int mask = INITIAL_CAPACITY - 1;
+    private int count = 0;
+
+    /**
+     * @return size of the level, 0 if it is not present
+     */
+    int get(int price) {
+        for (int slot = hash(price) & mask; sizes[slot] != 0; slot = (slot + 1) & mask) {
+            if (prices[slot] == price) {
+                return sizes[slot];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Set size of the level, 0 removes it
+     * @return previous size of the level, 0 if it was not present
+     */
+    int put(int price, int size) {
+        int slot = hash(price) & mask;
+        for (; sizes[slot] != 0; slot = (slot + 1) & mask) {
+            if (prices[slot] == price) {
+                int previousSize = sizes[slot];
+                if (size > 0) {
+                    sizes[slot] = size;
+                } else {
+                    remove(slot);
+                }
+                return previousSize;
+            }
+        }
+
+        if (size > 0) {
+            prices[slot] = price;
+            sizes[slot] = size;
+            if (++count * 2 > sizes.length) {
+                grow();
+            }
+        }
+        return 0;
+    }
+
+    int size() {
+        return count;
+    }
+
+    /**
+     * Backward shift deletion, so lookups never need tombstones
+     */
+    private void remove(int slot) {
+        count--;
+        int free = slot;
+        for (int next = (free + 1) & mask; sizes[next] != 0; next = (next + 1) & mask) {
+            int home = hash(prices[next]) & mask;
+            // Move entry into the free slot unless its home is cyclically in (free, next]
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                prices[free] = prices[next];
+                sizes[free] = sizes[next];
+                free = next;
+            }
+        }
+        sizes[free] = 0;
+    }
+
+    private void grow() {
+        int[] oldPrices = prices;
+        int[] oldSizes = sizes;
+        prices = new int[oldPrices.length * 2];
+        sizes = new int[oldSizes.length * 2];
+        mask = prices.length - 1;
+        for (int i = 0; i < oldSizes.length; i++) {
+            if (oldSizes[i] != 0) {
+                int slot = hash(oldPrices[i]) & mask;
+                while (sizes[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                prices[slot] = oldPrices[i];
+                sizes[slot] = oldSizes[i];
+            }
+        }
+    }
+
+    /**
+     * Prices are mostly consecutive, mixing spreads them over the table
+     */
+    private static int hash(int price) {
+        int h = price * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
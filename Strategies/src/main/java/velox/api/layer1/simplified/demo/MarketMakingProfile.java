@@ -0,0 +1,159 @@
+package velox.api.layer1.simplified.demo;
+
+import velox.api.layer1.data.InstrumentInfo;
+import velox.api.layer1.messages.indicators.Layer1ApiUserMessageModifyIndicator;
+import velox.api.layer1.simplified.Api;
+import velox.api.layer1.simplified.Indicator;
+
+import java.awt.*;
+
+/**
+ * Volume signal with markers and simulated market making: quotes a buy order
+ * a tick below the bid when the score reaches half of the signal threshold and
+ * a sell order for the bought shares a tick above the ask when it falls to
+ * minus half of it. Orders rest in a {@link PaperExchange} and are filled only
+ * when trades get through the queue ahead of them.
+ */
+public class MarketMakingProfile implements PowerProfile, PaperExchange.FillListener {
+
+    private static final int DEFAULT_WINDOW_SIZE = 60; // Example window size in seconds (1 minute)
+
+    private final String name;
+    private final double signalThreshold;
+    private final double investmentAmount;
+
+    private final DominanceSignal signal;
+    private final SignalMarkers markers = new SignalMarkers();
+    private Indicator profitIndicator;
+
+    private String alias;
+    private PowerEventLog eventLog;
+
+    private final PaperExchange exchange = new PaperExchange(2, this);
+    private int buyOrderId = PaperExchange.NO_ORDER;
+    private int sellOrderId = PaperExchange.NO_ORDER;
+
+    private double boughtShares = 0;
+    /**
+     * Average price of bought shares
+     */
+    private double buyPrice = 0;
+    private double totalProfit = 0;
+
+    /**
+     * @param signalThreshold score that places markers
+     * @param investmentAmount amount in dollars spent on each buy
+     */
+    public MarketMakingProfile(String name, double signalThreshold, double investmentAmount) {
+        this(name, signalThreshold, investmentAmount, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * @param windowSize number of intervals the maximum dominance is taken over
+     */
+    public MarketMakingProfile(String name, double signalThreshold, double investmentAmount, int windowSize) {
+        this.name = name;
+        this.signalThreshold = signalThreshold;
+        this.investmentAmount = investmentAmount;
+        signal = DominanceSignal.withWindow(10, windowSize);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void initialize(String alias, InstrumentInfo instrumentInfo, Api api, String indicatorPrefix,
+            PowerEventLog eventLog) {
+        this.alias = alias;
+        this.eventLog = eventLog;
+        signal.register(api, indicatorPrefix);
+        markers.register(api, indicatorPrefix);
+
+        profitIndicator = api.registerIndicator(indicatorPrefix + "Profit", Layer1ApiUserMessageModifyIndicator.GraphType.PRIMARY);
+        profitIndicator.setColor(Color.BLUE);
+    }
+
+    @Override
+    public void onInterval(PowerIntervalData data) {
+        double normalizedScore = signal.update(data.getDominance());
+
+        // Place visual markers for buy/sell signals
+        if (normalizedScore >= signalThreshold) {
+            eventLog.signal(alias, name, true, data.getLatestBidPrice(), normalizedScore);
+            markers.place(true, data.getLatestBidPrice());
+        } else if (normalizedScore <= -signalThreshold) {
+            eventLog.signal(alias, name, false, data.getLatestAskPrice(), normalizedScore);
+            markers.place(false, data.getLatestAskPrice());
+        }
+
+        // Lower threshold for more frequent trades, prices are 0 until the
+        // side is updated
+        if (normalizedScore >= signalThreshold / 2 && data.getLatestBidPrice() > 1) {
+            buyShares(data, data.getLatestBidPrice() - 1);
+        }
+        if (normalizedScore <= -(signalThreshold / 2) && data.getLatestAskPrice() > 0) {
+            sellShares(data, data.getLatestAskPrice() + 1);
+        }
+
+        // Update the profit indicator at every interval
+        profitIndicator.addPoint(totalProfit);
+    }
+
+    @Override
+    public void onDepth(boolean isBid, int price, int size) {
+        exchange.onDepth(isBid, price, size);
+    }
+
+    @Override
+    public void onTrade(double price, int size, boolean isBidAggressor) {
+        exchange.onTrade(price, size, isBidAggressor);
+    }
+
+    @Override
+    public void onFill(int orderId, boolean isBuy, int price, double size, double remainingSize) {
+        if (isBuy) {
+            buyPrice = (buyPrice * boughtShares + price * size) / (boughtShares + size);
+            boughtShares += size;
+            eventLog.fill(alias, name, true, size, price, Double.NaN);
+        } else {
+            double profit = (price - buyPrice) * size;
+            totalProfit += profit;
+            boughtShares -= size;
+            eventLog.fill(alias, name, false, size, price, profit);
+            profitIndicator.addPoint(totalProfit);
+        }
+    }
+
+    /**
+     * Quote a buy order at the price unless one is already working there
+     */
+    private void buyShares(PowerIntervalData data, int price) {
+        if (exchange.isActive(buyOrderId)) {
+            if (exchange.getPrice(buyOrderId) == price) {
+                return;
+            }
+            exchange.cancel(buyOrderId);
+        }
+        int quantity = (int) (investmentAmount / price);
+        buyOrderId = exchange.placeLimit(true, price, quantity, data.getLevelSize(true, price));
+    }
+
+    /**
+     * Quote all bought shares at the price, or move the working sell order there
+     */
+    private void sellShares(PowerIntervalData data, int price) {
+        if (exchange.isActive(sellOrderId)) {
+            if (exchange.getPrice(sellOrderId) == price) {
+                return;
+            }
+            exchange.cancel(sellOrderId);
+        }
+        if (boughtShares > 0) {
+            sellOrderId = exchange.placeLimit(false, price, boughtShares, data.getLevelSize(false, price));
+        } else {
+            eventLog.reject(alias, name, false, price);
+        }
+    }
+}
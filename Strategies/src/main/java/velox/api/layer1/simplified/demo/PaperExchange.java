@@ -0,0 +1,206 @@
+package velox.api.layer1.simplified.demo;
+
+/**
+ * Simulated execution of limit orders against the live depth and trade
+ * stream. Every order remembers the volume queued ahead of it on its level:
+ * at placement that is the whole level size, trades at the level consume it
+ * before the order is filled, and when the level shrinks for any other reason
+ * the queue ahead is cut to the new level size, since cancellations might
+ * have been ahead. A trade through the level, at a worse price for the
+ * aggressor than the order, fills the order completely.
+ * <p>
+ * Orders live in preallocated primitive arrays and only active orders are
+ * visited on each update. Order ids carry a generation of their slot, like
+ * {@code OrderIdTable} handles, so an id kept after its order was filled or
+ * cancelled never refers to a later order, so updates do not allocate and cost is bounded by
+ * the maximal number of orders. Prices are in ticks. Not thread safe, it is
+ * meant to be driven from the data thread.
+ */
+public class PaperExchange {
+
+    public static final int NO_ORDER = -1;
+
+    private static final int SLOT_BITS = 16;
+    private static final int SLOT_MASK = (1 << SLOT_BITS) - 1;
+    private static final int GENERATION_MASK = (1 << (31 - SLOT_BITS)) - 1;
+
+    /**
+     * Called from {@link #onTrade(double, int, boolean)}. Listener may place
+     * new orders, they are not matched against the trade that filled this
+     * one, but must not cancel orders.
+     */
+    public interface FillListener {
+        /**
+         * @param remainingSize size still working, 0 if the order is filled
+         *            completely and its id is released
+         */
+        void onFill(int orderId, boolean isBuy, int price, double size, double remainingSize);
+    }
+
+    private final FillListener fillListener;
+
+    /**
+     * Current id of every slot, generation is increased when the slot is freed
+     */
+    private final int[] orderIds;
+    private final boolean[] isBuys;
+    private final int[] prices;
+    private final double[] remainingSizes;
+    private final double[] queuesAhead;
+    /**
+     * Position of the order in {@link #activeOrders}, -1 if the slot is free
+     */
+    private final int[] activePositions;
+
+    private final int[] activeOrders;
+    private int activeCount = 0;
+    private final int[] freeOrders;
+    private int freeCount;
+
+    /**
+     * @param maxOrders maximal number of orders working at once
+     */
+    public PaperExchange(int maxOrders, FillListener fillListener) {
+        if (maxOrders > SLOT_MASK + 1) {
+            throw new IllegalArgumentException("Too many orders: " + maxOrders);
+        }
+        this.fillListener = fillListener;
+        orderIds = new int[maxOrders];
+        isBuys = new boolean[maxOrders];
+        prices = new int[maxOrders];
+        remainingSizes = new double[maxOrders];
+        queuesAhead = new double[maxOrders];
+        activePositions = new int[maxOrders];
+        activeOrders = new int[maxOrders];
+        freeOrders = new int[maxOrders];
+        for (int i = 0; i < maxOrders; i++) {
+            orderIds[i] = i;
+            activePositions[i] = -1;
+            freeOrders[i] = maxOrders - 1 - i;
+        }
+        freeCount = maxOrders;
+    }
+
+    /**
+     * @param levelSize current size of the level the order joins, see
+     *            {@link PowerIntervalData#getLevelSize(boolean, int)}
+     * @return order id, valid until the order is filled or cancelled, or
+     *         {@link #NO_ORDER} if size is not positive or too many orders are
+     *         working
+     */
+    public int placeLimit(boolean isBuy, int price, double size, int levelSize) {
+        if (!(size > 0) || freeCount == 0) {
+            return NO_ORDER;
+        }
+        int slot = freeOrders[--freeCount];
+        isBuys[slot] = isBuy;
+        prices[slot] = price;
+        remainingSizes[slot] = size;
+        queuesAhead[slot] = levelSize;
+        activePositions[slot] = activeCount;
+        activeOrders[activeCount++] = slot;
+        return orderIds[slot];
+    }
+
+    /**
+     * @return true if the order was working
+     */
+    public boolean cancel(int orderId) {
+        if (!isActive(orderId)) {
+            return false;
+        }
+        release(orderId & SLOT_MASK);
+        return true;
+    }
+
+    public void cancelAll() {
+        while (activeCount != 0) {
+            release(activeOrders[activeCount - 1]);
+        }
+    }
+
+    public boolean isActive(int orderId) {
+        int slot = orderId & SLOT_MASK;
+        return orderId >= 0 && slot < orderIds.length && orderIds[slot] == orderId && activePositions[slot] != -1;
+    }
+
+    public int getPrice(int orderId) {
+        return prices[orderId & SLOT_MASK];
+    }
+
+    public double getRemainingSize(int orderId) {
+        return remainingSizes[orderId & SLOT_MASK];
+    }
+
+    /**
+     * Volume that has to trade at the order price before the order is filled
+     */
+    public double getQueueAhead(int orderId) {
+        return queuesAhead[orderId & SLOT_MASK];
+    }
+
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    /**
+     * @param size new size of the level
+     */
+    public void onDepth(boolean isBid, int price, int size) {
+        for (int i = 0; i < activeCount; i++) {
+            int slot = activeOrders[i];
+            if (isBuys[slot] == isBid && prices[slot] == price && queuesAhead[slot] > size) {
+                queuesAhead[slot] = size;
+            }
+        }
+    }
+
+    /**
+     * @param isBidAggressor true if the buyer crossed the spread, so the trade
+     *            can only fill sell orders
+     */
+    public void onTrade(double price, int size, boolean isBidAggressor) {
+        // Iterate backwards, filled orders are swapped with the last active one
+        for (int i = activeCount - 1; i >= 0; i--) {
+            int slot = activeOrders[i];
+            boolean isBuy = isBuys[slot];
+            if (isBuy == isBidAggressor) {
+                continue;
+            }
+
+            int orderPrice = prices[slot];
+            double fillSize;
+            if (isBuy ? price < orderPrice : price > orderPrice) {
+                fillSize = remainingSizes[slot];
+            } else if (price == orderPrice) {
+                double leftAfterQueue = size - queuesAhead[slot];
+                queuesAhead[slot] = Math.max(0, -leftAfterQueue);
+                fillSize = Math.min(remainingSizes[slot], Math.max(0, leftAfterQueue));
+            } else {
+                continue;
+            }
+
+            if (fillSize > 0) {
+                int orderId = orderIds[slot];
+                double remainingSize = remainingSizes[slot] - fillSize;
+                if (remainingSize <= 0) {
+                    remainingSize = 0;
+                    release(slot);
+                } else {
+                    remainingSizes[slot] = remainingSize;
+                }
+                fillListener.onFill(orderId, isBuy, orderPrice, fillSize, remainingSize);
+            }
+        }
+    }
+
+    private void release(int slot) {
+        int position = activePositions[slot];
+        int lastSlot = activeOrders[--activeCount];
+        activeOrders[position] = lastSlot;
+        activePositions[lastSlot] = position;
+        activePositions[slot] = -1;
+        orderIds[slot] = slot | (((orderIds[slot] >>> SLOT_BITS) + 1 & GENERATION_MASK) << SLOT_BITS);
+        freeOrders[freeCount++] = slot;
+    }
+}
@@ -0,0 +1,105 @@
+package velox.api.layer1.simplified.demo;
+
+import velox.api.layer1.common.Log;
+import velox.api.layer1.simplified.Intervals;
+
+/**
+ * When {@link PowerIndicatorEngine} closes a bucket of accumulated depth data
+ * and passes it to profiles: after a fixed time interval, which may be shorter
+ * than a second, after a number of depth updates or after a volume of
+ * contracts. Counting modes close the bucket on the depth update that reaches
+ * the size, so a bucket is never empty and an update is never split.
+ * <p>
+ * Modules created by the platform use {@link #fromProperties()}:
+ * {@code velox.strategy.powerIndicator.bucketMode} is one of {@code time},
+ * {@code updates} or {@code volume} and
+ * {@code velox.strategy.powerIndicator.bucketSize} is milliseconds, number of
+ * updates or contracts respectively. Default is 1 second.
+ */
+public final class PowerBucketing {
+
+    public enum Mode {
+        TIME,
+        DEPTH_UPDATES,
+        VOLUME
+    }
+
+    private static final PowerBucketing DEFAULT = time(Intervals.INTERVAL_1_SECOND);
+
+    private final Mode mode;
+    private final long intervalNanos;
+    private final double size;
+
+    private PowerBucketing(Mode mode, long intervalNanos, double size) {
+        this.mode = mode;
+        this.intervalNanos = intervalNanos;
+        this.size = size;
+    }
+
+    /**
+     * @param intervalNanos bucket duration, e.g. {@link Intervals#INTERVAL_100_MILLISECONDS}
+     */
+    public static PowerBucketing time(long intervalNanos) {
+        if (intervalNanos <= 0) {
+            throw new IllegalArgumentException("Interval must be positive: " + intervalNanos);
+        }
+        return new PowerBucketing(Mode.TIME, intervalNanos, Double.NaN);
+    }
+
+    public static PowerBucketing depthUpdates(int updatesCount) {
+        if (updatesCount <= 0) {
+            throw new IllegalArgumentException("Updates count must be positive: " + updatesCount);
+        }
+        return new PowerBucketing(Mode.DEPTH_UPDATES, Intervals.INTERVAL_1_SECOND, updatesCount);
+    }
+
+    /**
+     * @param contracts buy plus sell volume that closes the bucket
+     */
+    public static PowerBucketing volume(double contracts) {
+        if (!(contracts > 0)) {
+            throw new IllegalArgumentException("Volume must be positive: " + contracts);
+        }
+        return new PowerBucketing(Mode.VOLUME, Intervals.INTERVAL_1_SECOND, contracts);
+    }
+
+    public static PowerBucketing fromProperties() {
+        String mode = System.getProperty("velox.strategy.powerIndicator.bucketMode", "time");
+        String size = System.getProperty("velox.strategy.powerIndicator.bucketSize");
+        try {
+            switch (mode) {
+            case "time":
+                return size == null ? DEFAULT : time(Long.parseLong(size) * 1_000_000L);
+            case "updates":
+                return depthUpdates(size == null ? 100 : Integer.parseInt(size));
+            case "volume":
+                return volume(size == null ? 1000 : Double.parseDouble(size));
+            default:
+                Log.warn("Power indicator: unknown bucket mode " + mode + ", using 1 second");
+                return DEFAULT;
+            }
+        } catch (IllegalArgumentException e) {
+            Log.warn("Power indicator: invalid bucket size " + size + " for mode " + mode + ", using 1 second: " + e);
+            return DEFAULT;
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Interval requested from the platform. Only {@link Mode#TIME} closes
+     * buckets on it, other modes ignore interval callbacks.
+     */
+    public long getIntervalNanos() {
+        return intervalNanos;
+    }
+
+    /**
+     * @return number of updates or volume of a bucket, NaN for {@link Mode#TIME}
+     */
+    public double getSize() {
+        return size;
+    }
+}
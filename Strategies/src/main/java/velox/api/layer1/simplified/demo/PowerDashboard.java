@@ -0,0 +1,281 @@
+package velox.api.layer1.simplified.demo;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import velox.api.layer1.common.Log;
+
+/**
+ * Cross-instrument view of power indicators shared by all instruments. Every
+ * engine publishes its buckets into its own {@link Slot} with a single
+ * volatile write, so the data path never locks or waits on other instruments. A single
+ * scheduled task samples all slots every
+ * {@code velox.strategy.powerIndicator.dashboardIntervalMs}, ranks instruments
+ * by dominance score of the interval and correlates the scores over the last
+ * {@code velox.strategy.powerIndicator.dashboardWindow} intervals.
+ * <p>
+ * Score of an instrument is its net added liquidity divided by all liquidity
+ * added and pulled in the interval, from -1 (only selling pressure) to 1 (only
+ * buying pressure), so instruments of different sizes are comparable.
+ */
+public class PowerDashboard {
+
+    private static final long INTERVAL_MS = Math.max(10, Long.getLong("velox.strategy.powerIndicator.dashboardIntervalMs", 1000));
+    private static final int WINDOW_SIZE = Math.max(3, Integer.getInteger("velox.strategy.powerIndicator.dashboardWindow", 60));
+
+    private static PowerDashboard instance;
+    private static int referencesCount = 0;
+
+    /**
+     * Buckets of one engine. Written by the data thread of that engine only,
+     * history is owned by the scheduled task.
+     */
+    public static final class Slot {
+
+        /**
+         * Running sums of all published buckets. Replaced as a whole, so the
+         * sampler never sees dominance of one bucket with volume of another.
+         */
+        private static final class Sums {
+            final double dominanceSum;
+            final double volumeSum;
+
+            Sums(double dominanceSum, double volumeSum) {
+                this.dominanceSum = dominanceSum;
+                this.volumeSum = volumeSum;
+            }
+        }
+
+        private final String alias;
+
+        private volatile Sums sums = new Sums(0, 0);
+
+        private final double[] scores = new double[WINDOW_SIZE];
+        private int scoresCount = 0;
+        private int nextScore = 0;
+        private double sampledDominanceSum = 0;
+        private double sampledVolumeSum = 0;
+
+        private Slot(String alias) {
+            this.alias = alias;
+        }
+
+        /**
+         * Add closed bucket, only to be called from the data thread of the
+         * instrument
+         */
+        public void publish(PowerIntervalData data) {
+            // Single writer, so read-modify-write of the volatile field is safe
+            Sums current = sums;
+            sums = new Sums(current.dominanceSum + data.getDominance(),
+                    current.volumeSum + data.getTotalBuyVolume() + data.getTotalSellVolume()
+                    + data.getPulledBuyVolume() + data.getPulledSellVolume());
+        }
+
+        public String getAlias() {
+            return alias;
+        }
+
+        private void sample() {
+            Sums current = sums;
+            double currentDominanceSum = current.dominanceSum;
+            double currentVolumeSum = current.volumeSum;
+            double volume = currentVolumeSum - sampledVolumeSum;
+            double score = volume > 0 ? (currentDominanceSum - sampledDominanceSum) / volume : 0;
+            sampledDominanceSum = currentDominanceSum;
+            sampledVolumeSum = currentVolumeSum;
+
+            scores[nextScore] = score;
+            nextScore = (nextScore + 1) % WINDOW_SIZE;
+            scoresCount = Math.min(scoresCount + 1, WINDOW_SIZE);
+        }
+
+        /**
+         * @param age 0 for the latest score
+         */
+        private double getScore(int age) {
+            return scores[(nextScore - 1 - age + 2 * WINDOW_SIZE) % WINDOW_SIZE];
+        }
+
+        private double getMeanScore() {
+            double sum = 0;
+            for (int i = 0; i < scoresCount; i++) {
+                sum += scores[i];
+            }
+            return scoresCount == 0 ? Double.NaN : sum / scoresCount;
+        }
+    }
+
+    /**
+     * Aggregate of one interval, instruments ordered from the strongest buying
+     * to the strongest selling score
+     */
+    public static final class View {
+
+        private final long time;
+        private final String[] aliases;
+        private final double[] scores;
+        private final double[] meanScores;
+        private final double[][] correlations;
+
+        private View(long time, String[] aliases, double[] scores, double[] meanScores, double[][] correlations) {
+            this.time = time;
+            this.aliases = aliases;
+            this.scores = scores;
+            this.meanScores = meanScores;
+            this.correlations = correlations;
+        }
+
+        /**
+         * Time the view was computed at, in milliseconds
+         */
+        public long getTime() {
+            return time;
+        }
+
+        public int getInstrumentsCount() {
+            return aliases.length;
+        }
+
+        public String getAlias(int rank) {
+            return aliases[rank];
+        }
+
+        /**
+         * Score of the last interval, from -1 to 1
+         */
+        public double getScore(int rank) {
+            return scores[rank];
+        }
+
+        /**
+         * Mean score over the correlation window
+         */
+        public double getMeanScore(int rank) {
+            return meanScores[rank];
+        }
+
+        /**
+         * Pearson correlation of scores of two instruments over the intervals
+         * both were present, NaN if there are not enough of them or one of
+         * the scores is constant
+         */
+        public double getCorrelation(int rank1, int rank2) {
+            return correlations[rank1][rank2];
+        }
+    }
+
+    private final List<Slot> slots = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService scheduler;
+    private volatile View latestView = new View(0, new String[0], new double[0], new double[0], new double[0][0]);
+
+    /**
+     * Get shared dashboard, must be paired with {@link #release()}
+     */
+    public static synchronized PowerDashboard acquire() {
+        if (instance == null) {
+            instance = new PowerDashboard();
+        }
+        referencesCount++;
+        return instance;
+    }
+
+    public static synchronized void release() {
+        if (referencesCount > 0 && --referencesCount == 0) {
+            instance.scheduler.shutdownNow();
+            instance = null;
+        }
+    }
+
+    private PowerDashboard() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Power indicators dashboard");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::update, INTERVAL_MS, INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public Slot register(String alias) {
+        Slot slot = new Slot(alias);
+        slots.add(slot);
+        return slot;
+    }
+
+    public void unregister(Slot slot) {
+        slots.remove(slot);
+    }
+
+    /**
+     * Aggregate of the last interval, never null
+     */
+    public View getLatestView() {
+        return latestView;
+    }
+
+    private void update() {
+        try {
+            // Several power indicators on one instrument see the same data, keep the first one
+            List<Slot> instrumentSlots = new ArrayList<>();
+            Set<String> aliases = new HashSet<>();
+            for (Slot slot : slots) {
+                slot.sample();
+                if (aliases.add(slot.alias)) {
+                    instrumentSlots.add(slot);
+                }
+            }
+            instrumentSlots.sort((slot1, slot2) -> Double.compare(slot2.getScore(0), slot1.getScore(0)));
+
+            int count = instrumentSlots.size();
+            String[] rankedAliases = new String[count];
+            double[] scores = new double[count];
+            double[] meanScores = new double[count];
+            double[][] correlations = new double[count][count];
+            for (int i = 0; i < count; i++) {
+                Slot slot = instrumentSlots.get(i);
+                rankedAliases[i] = slot.alias;
+                scores[i] = slot.getScore(0);
+                meanScores[i] = slot.getMeanScore();
+                correlations[i][i] = 1;
+                for (int j = 0; j < i; j++) {
+                    correlations[i][j] = correlations[j][i] = correlate(slot, instrumentSlots.get(j));
+                }
+            }
+            latestView = new View(System.currentTimeMillis(), rankedAliases, scores, meanScores, correlations);
+        } catch (RuntimeException e) {
+            // Exception would cancel the scheduled task
+            Log.warn("Power indicator: failed to update dashboard", e);
+        }
+    }
+
+    private static double correlate(Slot slot1, Slot slot2) {
+        int count = Math.min(slot1.scoresCount, slot2.scoresCount);
+        if (count < 3) {
+            return Double.NaN;
+        }
+
+        double sum1 = 0, sum2 = 0;
+        for (int age = 0; age < count; age++) {
+            sum1 += slot1.getScore(age);
+            sum2 += slot2.getScore(age);
+        }
+        double mean1 = sum1 / count;
+        double mean2 = sum2 / count;
+
+        double covariance = 0, variance1 = 0, variance2 = 0;
+        for (int age = 0; age < count; age++) {
+            double deviation1 = slot1.getScore(age) - mean1;
+            double deviation2 = slot2.getScore(age) - mean2;
+            covariance += deviation1 * deviation2;
+            variance1 += deviation1 * deviation1;
+            variance2 += deviation2 * deviation2;
+        }
+        return variance1 > 0 && variance2 > 0 ? covariance / Math.sqrt(variance1 * variance2) : Double.NaN;
+    }
+}
@@ -0,0 +1,123 @@
+package velox.api.layer1.simplified.demo;
+
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+
+import velox.gui.StrategyPanel;
+
+/**
+ * Table of {@link PowerDashboard}: instruments ranked by score with their
+ * correlations. Polls the latest view while the panel is shown, so the
+ * dashboard does not need to know about its panels.
+ */
+public class PowerDashboardPanel extends StrategyPanel {
+
+    private static final int REFRESH_MS = 500;
+    private static final int FIXED_COLUMNS_COUNT = 3;
+
+    private final PowerDashboard dashboard;
+    private final DashboardTableModel tableModel = new DashboardTableModel();
+    private final Timer refreshTimer;
+
+    public PowerDashboardPanel(PowerDashboard dashboard) {
+        super("Power dashboard", new BorderLayout());
+        this.dashboard = dashboard;
+
+        JTable table = new JTable(tableModel);
+        table.setAutoResizeMode(JTable.AUTO_RESIZE_OFF);
+        JScrollPane scrollPane = new JScrollPane(table);
+        scrollPane.setPreferredSize(new Dimension(400, 250));
+        add(scrollPane, BorderLayout.CENTER);
+
+        refreshTimer = new Timer(REFRESH_MS, e -> tableModel.setView(this.dashboard.getLatestView()));
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        tableModel.setView(dashboard.getLatestView());
+        refreshTimer.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        refreshTimer.stop();
+        super.removeNotify();
+    }
+
+    private static class DashboardTableModel extends AbstractTableModel {
+
+        private PowerDashboard.View view;
+
+        void setView(PowerDashboard.View view) {
+            if (view == this.view) {
+                return;
+            }
+            boolean isStructureChanged = this.view == null || !hasSameAliases(this.view, view);
+            this.view = view;
+            if (isStructureChanged) {
+                fireTableStructureChanged();
+            } else {
+                fireTableDataChanged();
+            }
+        }
+
+        private static boolean hasSameAliases(PowerDashboard.View view1, PowerDashboard.View view2) {
+            if (view1.getInstrumentsCount() != view2.getInstrumentsCount()) {
+                return false;
+            }
+            for (int rank = 0; rank < view1.getInstrumentsCount(); rank++) {
+                if (!view1.getAlias(rank).equals(view2.getAlias(rank))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int getRowCount() {
+            return view == null ? 0 : view.getInstrumentsCount();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return FIXED_COLUMNS_COUNT + getRowCount();
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            switch (column) {
+            case 0:
+                return "Instrument";
+            case 1:
+                return "Score";
+            case 2:
+                return "Mean";
+            default:
+                return view.getAlias(column - FIXED_COLUMNS_COUNT);
+            }
+        }
+
+        @Override
+        public Object getValueAt(int rank, int column) {
+            switch (column) {
+            case 0:
+                return view.getAlias(rank);
+            case 1:
+                return format(view.getScore(rank));
+            case 2:
+                return format(view.getMeanScore(rank));
+            default:
+                return format(view.getCorrelation(rank, column - FIXED_COLUMNS_COUNT));
+            }
+        }
+
+        private static String format(double value) {
+            return Double.isNaN(value) ? "" : String.format("%.2f", value);
+        }
+    }
+}
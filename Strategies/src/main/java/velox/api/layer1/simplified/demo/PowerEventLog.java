@@ -0,0 +1,284 @@
+package velox.api.layer1.simplified.demo;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import velox.api.layer1.common.Log;
+import velox.api.layer1.utils.RollingFiles;
+
+/**
+ * Structured log of signals and simulated fills of power indicator profiles.
+ * Records are written by data threads into a preallocated ring buffer without
+ * locks, string formatting or allocation, and a background thread formats
+ * them into a rolling file. If the writer falls behind and the buffer is full
+ * new records are dropped and counted rather than blocking the data thread.
+ * <p>
+ * Log is written to {@value #LOG_FILE_NAME} in the working directory. Once the
+ * file grows over {@code velox.strategy.powerIndicator.eventLogMaxBytes} it is
+ * renamed to {@value #LOG_FILE_NAME}.1 and so on, keeping
+ * {@value #LOG_FILES_COUNT} old files. Buffer holds
+ * {@code velox.strategy.powerIndicator.eventLogCapacity} records.
+ */
+public class PowerEventLog {
+
+    private static final String LOG_FILE_NAME = "PowerIndicators_events.log";
+    private static final int LOG_FILES_COUNT = 5;
+    private static final long LOG_MAX_BYTES = Long.getLong("velox.strategy.powerIndicator.eventLogMaxBytes", 10 * 1024 * 1024);
+    private static final int CAPACITY = Integer.highestOneBit(
+            Math.max(16, Integer.getInteger("velox.strategy.powerIndicator.eventLogCapacity", 1 << 14)));
+    private static final long WRITER_IDLE_NANOS = 50_000_000L;
+    private static final String EOL = System.getProperty("line.separator");
+
+    private static final byte SNAPSHOT_END = 0;
+    private static final byte SIGNAL = 1;
+    private static final byte FILL = 2;
+    private static final byte REJECT = 3;
+
+    private static PowerEventLog instance;
+    private static int referencesCount = 0;
+
+    private static class DisabledHolder {
+        private static final PowerEventLog INSTANCE = new PowerEventLog(false);
+    }
+
+    private final boolean isEnabled;
+
+    private final int mask = CAPACITY - 1;
+    private final AtomicLong claimedCount = new AtomicLong();
+    /**
+     * published[i] is sequence + 1 of the record stored in slot i once it is written
+     */
+    private final AtomicLongArray published = new AtomicLongArray(CAPACITY);
+    private volatile long consumedCount = 0;
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    private final long[] times = new long[CAPACITY];
+    private final byte[] types = new byte[CAPACITY];
+    private final String[] aliases = new String[CAPACITY];
+    private final String[] sources = new String[CAPACITY];
+    private final boolean[] isBuys = new boolean[CAPACITY];
+    private final double[] prices = new double[CAPACITY];
+    private final double[] quantities = new double[CAPACITY];
+    private final double[] values = new double[CAPACITY];
+
+    private final Thread writerThread;
+    private volatile boolean isRunning = true;
+
+    private final File logFile = new File(System.getProperty("user.dir"), LOG_FILE_NAME);
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+    private final StringBuilder line = new StringBuilder();
+    private Writer writer;
+    private long fileSize;
+    private long reportedDroppedCount = 0;
+
+    /**
+     * Get shared log, must be paired with {@link #release()}
+     */
+    public static synchronized PowerEventLog acquire() {
+        if (instance == null) {
+            instance = new PowerEventLog(true);
+        }
+        referencesCount++;
+        return instance;
+    }
+
+    public static synchronized void release() {
+        if (referencesCount > 0 && --referencesCount == 0) {
+            instance.shutdown();
+            instance = null;
+        }
+    }
+
+    /**
+     * Log that discards all records, for simulations that only need results.
+     * Does not need to be released.
+     */
+    public static PowerEventLog disabled() {
+        return DisabledHolder.INSTANCE;
+    }
+
+    private PowerEventLog(boolean isEnabled) {
+        this.isEnabled = isEnabled;
+        if (isEnabled) {
+            writerThread = new Thread(this::runWriter, "Power indicators event log");
+            writerThread.setDaemon(true);
+            writerThread.start();
+        } else {
+            writerThread = null;
+        }
+    }
+
+    public void snapshotEnd(String alias, String source) {
+        record(SNAPSHOT_END, alias, source, false, Double.NaN, Double.NaN, Double.NaN);
+    }
+
+    /**
+     * @param score signal value that triggered the signal, NaN if not applicable
+     */
+    public void signal(String alias, String source, boolean isBuy, double price, double score) {
+        record(SIGNAL, alias, source, isBuy, price, Double.NaN, score);
+    }
+
+    /**
+     * @param profit realized profit of the fill or total profit after it, NaN if not known
+     */
+    public void fill(String alias, String source, boolean isBuy, double quantity, double price, double profit) {
+        record(FILL, alias, source, isBuy, price, quantity, profit);
+    }
+
+    /**
+     * Simulated order that could not be filled
+     */
+    public void reject(String alias, String source, boolean isBuy, double price) {
+        record(REJECT, alias, source, isBuy, price, Double.NaN, Double.NaN);
+    }
+
+    /**
+     * Number of records dropped because the buffer was full
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    private void record(byte type, String alias, String source, boolean isBuy, double price, double quantity, double value) {
+        if (!isEnabled) {
+            return;
+        }
+
+        long sequence;
+        do {
+            sequence = claimedCount.get();
+            if (sequence - consumedCount >= CAPACITY) {
+                droppedCount.incrementAndGet();
+                return;
+            }
+        } while (!claimedCount.compareAndSet(sequence, sequence + 1));
+
+        int index = (int) sequence & mask;
+        times[index] = System.currentTimeMillis();
+        types[index] = type;
+        aliases[index] = alias;
+        sources[index] = source;
+        isBuys[index] = isBuy;
+        prices[index] = price;
+        quantities[index] = quantity;
+        values[index] = value;
+        published.lazySet(index, sequence + 1);
+    }
+
+    private void runWriter() {
+        while (true) {
+            boolean wasRunning = isRunning;
+            if (!drain() && !wasRunning) {
+                break;
+            }
+            if (wasRunning) {
+                LockSupport.parkNanos(WRITER_IDLE_NANOS);
+            }
+        }
+        closeWriter();
+    }
+
+    /**
+     * @return true if anything was written
+     */
+    private boolean drain() {
+        long sequence = consumedCount;
+        long dropped = droppedCount.get();
+        if (published.get((int) sequence & mask) != sequence + 1 && dropped == reportedDroppedCount) {
+            return false;
+        }
+
+        line.setLength(0);
+        while (published.get((int) sequence & mask) == sequence + 1) {
+            format((int) sequence & mask);
+            sequence++;
+            // slot can be reused as soon as it is formatted
+            consumedCount = sequence;
+        }
+        if (dropped != reportedDroppedCount) {
+            line.append(dateFormat.format(new Date())).append(" dropped ").append(dropped - reportedDroppedCount)
+                    .append(" events, log buffer is full").append(EOL);
+            reportedDroppedCount = dropped;
+        }
+        write(line);
+        return true;
+    }
+
+    private void format(int index) {
+        line.append(dateFormat.format(new Date(times[index]))).append(' ')
+                .append(aliases[index]).append(' ').append(sources[index]).append(' ');
+        switch (types[index]) {
+        case SNAPSHOT_END:
+            line.append("SNAPSHOT_END");
+            break;
+        case SIGNAL:
+            line.append("SIGNAL ").append(isBuys[index] ? "BUY" : "SELL").append(" price=").append(prices[index]);
+            appendIfKnown(" score=", values[index]);
+            break;
+        case FILL:
+            line.append("FILL ").append(isBuys[index] ? "BUY" : "SELL").append(" quantity=").append(quantities[index])
+                    .append(" price=").append(prices[index]);
+            appendIfKnown(" profit=", values[index]);
+            break;
+        case REJECT:
+            line.append("REJECT ").append(isBuys[index] ? "BUY" : "SELL").append(" price=").append(prices[index]);
+            break;
+        default:
+            line.append("UNKNOWN ").append(types[index]);
+            break;
+        }
+        line.append(EOL);
+        aliases[index] = null;
+        sources[index] = null;
+    }
+
+    private void appendIfKnown(String name, double value) {
+        if (!Double.isNaN(value)) {
+            line.append(name).append(value);
+        }
+    }
+
+    private void write(CharSequence text) {
+        try {
+            if (writer == null || fileSize > LOG_MAX_BYTES) {
+                closeWriter();
+                if (logFile.length() > LOG_MAX_BYTES) {
+                    RollingFiles.roll(logFile, LOG_FILES_COUNT, "Power indicator");
+                }
+                writer = new BufferedWriter(new FileWriter(logFile, true));
+                fileSize = logFile.length();
+            }
+            writer.append(text);
+            writer.flush();
+            fileSize += text.length();
+        } catch (IOException e) {
+            Log.warn("Power indicator: failed to write events to " + logFile + ": " + e);
+            closeWriter();
+        }
+    }
+
+    private void closeWriter() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                Log.warn("Power indicator: failed to close " + logFile + ": " + e);
+            }
+            writer = null;
+        }
+    }
+
+    private void shutdown() {
+        isRunning = false;
+        LockSupport.unpark(writerThread);
+    }
+}
@@ -4,67 +4,16 @@ import velox.api.layer1.annotations.Layer1ApiVersion;
 import velox.api.layer1.annotations.Layer1ApiVersionValue;
 import velox.api.layer1.annotations.Layer1SimpleAttachable;
 import velox.api.layer1.annotations.Layer1StrategyName;
-import velox.api.layer1.data.InstrumentInfo;
-import velox.api.layer1.messages.indicators.Layer1ApiUserMessageModifyIndicator;
-import velox.api.layer1.simplified.*;
-
-import java.awt.*;
 
+/**
+ * Buy and sell volume of every interval, see {@link PowerIndicatorEngine}
+ */
 @Layer1SimpleAttachable
 @Layer1StrategyName("Power Indicator")
 @Layer1ApiVersion(Layer1ApiVersionValue.VERSION2)
-public class PowerIndicator implements CustomModule, IntervalListener, SnapshotEndListener, DepthDataListener {
-
-    private Indicator buyVolumeIndicator;
-    private Indicator sellVolumeIndicator;
-
-    private double totalBuyVolume = 0;
-    private double totalSellVolume = 0;
-
-    @Override
-    public void initialize(String alias, InstrumentInfo instrumentInfo, Api api, InitialState initialState) {
-        buyVolumeIndicator = api.registerIndicator("Buy Volume", Layer1ApiUserMessageModifyIndicator.GraphType.PRIMARY);
-        buyVolumeIndicator.setColor(Color.GREEN);
-
-        sellVolumeIndicator = api.registerIndicator("Sell Volume", Layer1ApiUserMessageModifyIndicator.GraphType.PRIMARY);
-        sellVolumeIndicator.setColor(Color.RED);
-    }
-
-    @Override
-    public void stop() {
-        // Clean up resources if needed
-    }
-
-    @Override
-    public void onSnapshotEnd() {
-        // This method will be called when the snapshot ends
-        System.out.println("Snapshot Ended: Order book is ready for processing.");
-    }
-
-    @Override
-    public void onDepth(boolean isBid, int price, int size) {
-        if (size > 0) {
-            if (isBid) {
-                totalBuyVolume += size;
-            } else {
-                totalSellVolume += size;
-            }
-        }
-    }
-
-    @Override
-    public long getInterval() {
-        return Intervals.INTERVAL_1_SECOND;
-    }
-
-    @Override
-    public void onInterval() {
-        // Add the volumes to the indicators
-        buyVolumeIndicator.addPoint(totalBuyVolume);
-        sellVolumeIndicator.addPoint(totalSellVolume);
+public class PowerIndicator extends PowerIndicatorEngine {
 
-        // Reset volumes for the next interval
-        totalBuyVolume = 0;
-        totalSellVolume = 0;
+    public PowerIndicator() {
+        super();
     }
 }
@@ -0,0 +1,168 @@
+package velox.api.layer1.simplified.demo;
+
+import velox.api.layer1.data.InstrumentInfo;
+import velox.api.layer1.data.TradeInfo;
+import velox.api.layer1.messages.indicators.Layer1ApiUserMessageModifyIndicator;
+import velox.api.layer1.simplified.*;
+import velox.gui.StrategyPanel;
+
+import java.awt.*;
+
+/**
+ * Accumulates depth updates of an instrument once, plots buy and sell volumes
+ * of every bucket and passes the accumulated data to its profiles. Power
+ * indicator modules are this engine with one or several profiles. Level sizes
+ * are shared by all modules loaded on an instrument through
+ * {@link SharedPowerDepth}, buckets are per module since every module has its
+ * own interval timer. Buckets are time intervals or fixed numbers of depth
+ * updates or contracts, see {@link PowerBucketing}. Every bucket is also
+ * published to the shared {@link PowerDashboard}, which is shown in settings
+ * of the module.
+ */
+public class PowerIndicatorEngine implements CustomModule, IntervalListener, SnapshotEndListener, DepthDataListener,
+        TradeDataListener, CustomSettingsPanelProvider {
+
+    private final PowerBucketing bucketing;
+    private final PowerProfile[] profiles;
+    private SharedPowerDepth sharedDepth;
+    private PowerIntervalData data;
+    private int bucketUpdatesCount = 0;
+
+    private Indicator buyVolumeIndicator;
+    private Indicator sellVolumeIndicator;
+
+    private String alias;
+    private PowerEventLog eventLog;
+    private PowerDashboard dashboard;
+    private PowerDashboard.Slot dashboardSlot;
+
+    public PowerIndicatorEngine(PowerProfile... profiles) {
+        this(PowerBucketing.fromProperties(), profiles);
+    }
+
+    public PowerIndicatorEngine(PowerBucketing bucketing, PowerProfile... profiles) {
+        this.bucketing = bucketing;
+        this.profiles = profiles;
+    }
+
+    @Override
+    public void initialize(String alias, InstrumentInfo instrumentInfo, Api api, InitialState initialState) {
+        initialize(alias, instrumentInfo, api, PowerEventLog.acquire());
+    }
+
+    /**
+     * @param eventLog shared log or {@link PowerEventLog#disabled()} for runs
+     *            that should not write signals
+     */
+    void initialize(String alias, InstrumentInfo instrumentInfo, Api api, PowerEventLog eventLog) {
+        this.alias = alias;
+        this.eventLog = eventLog;
+        sharedDepth = SharedPowerDepth.acquire(alias);
+        data = new PowerIntervalData(sharedDepth);
+        dashboard = PowerDashboard.acquire();
+        dashboardSlot = dashboard.register(alias);
+
+        buyVolumeIndicator = api.registerIndicator("Buy Volume", Layer1ApiUserMessageModifyIndicator.GraphType.PRIMARY);
+        buyVolumeIndicator.setColor(Color.GREEN);
+
+        sellVolumeIndicator = api.registerIndicator("Sell Volume", Layer1ApiUserMessageModifyIndicator.GraphType.PRIMARY);
+        sellVolumeIndicator.setColor(Color.RED);
+
+        for (PowerProfile profile : profiles) {
+            profile.initialize(alias, instrumentInfo, api, profiles.length > 1 ? profile.getName() + ": " : "", eventLog);
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (eventLog != null) {
+            if (eventLog != PowerEventLog.disabled()) {
+                PowerEventLog.release();
+            }
+            eventLog = null;
+        }
+        if (sharedDepth != null) {
+            data.close();
+            SharedPowerDepth.release(sharedDepth);
+            sharedDepth = null;
+        }
+        if (dashboard != null) {
+            dashboard.unregister(dashboardSlot);
+            dashboard = null;
+            dashboardSlot = null;
+            PowerDashboard.release();
+        }
+    }
+
+    @Override
+    public StrategyPanel[] getCustomSettingsPanels() {
+        PowerDashboard dashboard = this.dashboard;
+        return dashboard == null ? new StrategyPanel[0] : new StrategyPanel[] { new PowerDashboardPanel(dashboard) };
+    }
+
+    @Override
+    public void onSnapshotEnd() {
+        // This method will be called when the snapshot ends
+        eventLog.snapshotEnd(alias, getClass().getSimpleName());
+        // Snapshot fills the book, it is not liquidity flow
+        data.resetInterval();
+        bucketUpdatesCount = 0;
+    }
+
+    @Override
+    public void onDepth(boolean isBid, int price, int size) {
+        data.onDepth(isBid, price, size);
+        for (PowerProfile profile : profiles) {
+            profile.onDepth(isBid, price, size);
+        }
+
+        switch (bucketing.getMode()) {
+        case DEPTH_UPDATES:
+            if (++bucketUpdatesCount >= bucketing.getSize()) {
+                closeBucket();
+            }
+            break;
+        case VOLUME:
+            if (data.getTotalBuyVolume() + data.getTotalSellVolume() >= bucketing.getSize()) {
+                closeBucket();
+            }
+            break;
+        default:
+            break;
+        }
+    }
+
+    @Override
+    public void onTrade(double price, int size, TradeInfo tradeInfo) {
+        for (PowerProfile profile : profiles) {
+            profile.onTrade(price, size, tradeInfo.isBidAggressor);
+        }
+    }
+
+    @Override
+    public long getInterval() {
+        return bucketing.getIntervalNanos();
+    }
+
+    @Override
+    public void onInterval() {
+        if (bucketing.getMode() == PowerBucketing.Mode.TIME) {
+            closeBucket();
+        }
+    }
+
+    private void closeBucket() {
+        // Add the volumes to the indicators
+        buyVolumeIndicator.addPoint(data.getTotalBuyVolume());
+        sellVolumeIndicator.addPoint(data.getTotalSellVolume());
+
+        for (PowerProfile profile : profiles) {
+            profile.onInterval(data);
+        }
+        dashboardSlot.publish(data);
+
+        // Reset volumes for the next bucket
+        data.resetInterval();
+        bucketUpdatesCount = 0;
+    }
+}
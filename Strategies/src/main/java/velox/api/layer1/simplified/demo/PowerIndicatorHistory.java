@@ -0,0 +1,385 @@
+package velox.api.layer1.simplified.demo;
+
+import java.awt.Color;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import velox.api.layer1.Layer1ApiAdminAdapter;
+import velox.api.layer1.Layer1ApiFinishable;
+import velox.api.layer1.Layer1ApiProvider;
+import velox.api.layer1.annotations.Layer1ApiVersion;
+import velox.api.layer1.annotations.Layer1ApiVersionValue;
+import velox.api.layer1.annotations.Layer1Attachable;
+import velox.api.layer1.annotations.Layer1StrategyName;
+import velox.api.layer1.common.ListenableHelper;
+import velox.api.layer1.data.BalanceInfo;
+import velox.api.layer1.data.ExecutionInfo;
+import velox.api.layer1.data.InstrumentInfo;
+import velox.api.layer1.data.MarketMode;
+import velox.api.layer1.data.OrderInfoUpdate;
+import velox.api.layer1.data.StatusInfo;
+import velox.api.layer1.data.TradeInfo;
+import velox.api.layer1.layers.strategies.interfaces.CalculatedResultListener;
+import velox.api.layer1.layers.strategies.interfaces.CustomEventAggregatble;
+import velox.api.layer1.layers.strategies.interfaces.CustomGeneratedEvent;
+import velox.api.layer1.layers.strategies.interfaces.CustomGeneratedEventAliased;
+import velox.api.layer1.layers.strategies.interfaces.InvalidateInterface;
+import velox.api.layer1.layers.strategies.interfaces.OnlineCalculatable;
+import velox.api.layer1.layers.strategies.interfaces.OnlineValueCalculatorAdapter;
+import velox.api.layer1.messages.GeneratedEventInfo;
+import velox.api.layer1.messages.Layer1ApiUserMessageAddStrategyUpdateGenerator;
+import velox.api.layer1.messages.UserMessageLayersChainCreatedTargeted;
+import velox.api.layer1.messages.indicators.DataStructureInterface;
+import velox.api.layer1.messages.indicators.DataStructureInterface.TreeResponseInterval;
+import velox.api.layer1.messages.indicators.IndicatorColorScheme;
+import velox.api.layer1.messages.indicators.IndicatorLineStyle;
+import velox.api.layer1.messages.indicators.Layer1ApiDataInterfaceRequestMessage;
+import velox.api.layer1.messages.indicators.Layer1ApiUserMessageModifyIndicator;
+import velox.api.layer1.messages.indicators.Layer1ApiUserMessageModifyIndicator.GraphType;
+import velox.api.layer1.messages.indicators.StrategyUpdateGenerator;
+
+/**
+ * Dominance of the power indicators computed from the whole history, not only
+ * from live data. A {@link StrategyUpdateGenerator} accumulates depth updates
+ * into one second buckets with {@link PowerIntervalData}, same as
+ * {@link PowerIndicatorEngine} does by default, and publishes added and pulled
+ * volumes of every bucket, so dominance is the same net flow as in the live
+ * modules. Snapshot of an instrument only fills the book and is not counted. Bookmap keeps them in an aggregation tree, so any
+ * visible range is filled in bulk by {@link #calculateValuesInRange} with one
+ * request instead of replaying updates point by point. Value shown is the
+ * mean dominance of buckets with updates within each screen interval, so it
+ * does not depend on the zoom level.
+ */
+@Layer1Attachable
+@Layer1StrategyName("Power Indicator History")
+@Layer1ApiVersion(Layer1ApiVersionValue.VERSION2)
+public class PowerIndicatorHistory implements
+    Layer1ApiFinishable,
+    Layer1ApiAdminAdapter,
+    OnlineCalculatable {
+
+    /**
+     * Volumes of one bucket or, as an aggregation, sums over several buckets
+     */
+    static class PowerEvent implements CustomGeneratedEvent {
+        private static final long serialVersionUID = 2L;
+        private final long time;
+
+        double buyVolume;
+        double sellVolume;
+        double pulledBuyVolume;
+        double pulledSellVolume;
+        int bucketsCount;
+
+        public PowerEvent(long time, double buyVolume, double sellVolume, double pulledBuyVolume,
+                double pulledSellVolume, int bucketsCount) {
+            this.time = time;
+            this.buyVolume = buyVolume;
+            this.sellVolume = sellVolume;
+            this.pulledBuyVolume = pulledBuyVolume;
+            this.pulledSellVolume = pulledSellVolume;
+            this.bucketsCount = bucketsCount;
+        }
+
+        PowerEvent(long time, PowerIntervalData data) {
+            this(time, data.getTotalBuyVolume(), data.getTotalSellVolume(), data.getPulledBuyVolume(),
+                    data.getPulledSellVolume(), 1);
+        }
+
+        @Override
+        public long getTime() {
+            return time;
+        }
+
+        @Override
+        public Object clone() {
+            return new PowerEvent(time, buyVolume, sellVolume, pulledBuyVolume, pulledSellVolume, bucketsCount);
+        }
+
+        @Override
+        public String toString() {
+            return "[" + time + ": " + buyVolume + "/" + sellVolume + " pulled " + pulledBuyVolume + "/"
+                    + pulledSellVolume + " in " + bucketsCount + "]";
+        }
+
+        void add(PowerEvent other) {
+            buyVolume += other.buyVolume;
+            sellVolume += other.sellVolume;
+            pulledBuyVolume += other.pulledBuyVolume;
+            pulledSellVolume += other.pulledSellVolume;
+            bucketsCount += other.bucketsCount;
+        }
+
+        /**
+         * @return mean {@link PowerIntervalData#getDominance()} per bucket or
+         *         NaN if there are no buckets
+         */
+        double getMeanDominance() {
+            return bucketsCount == 0 ? Double.NaN
+                    : ((buyVolume - pulledBuyVolume) - (sellVolume - pulledSellVolume)) / bucketsCount;
+        }
+    }
+
+    public static final CustomEventAggregatble POWER_EVENTS_AGGREGATOR = new CustomEventAggregatble() {
+        @Override
+        public CustomGeneratedEvent getInitialValue(long t) {
+            return new PowerEvent(t, 0, 0, 0, 0, 0);
+        }
+
+        @Override
+        public void aggregateAggregationWithValue(CustomGeneratedEvent aggregation, CustomGeneratedEvent value) {
+            ((PowerEvent) aggregation).add((PowerEvent) value);
+        }
+
+        @Override
+        public void aggregateAggregationWithAggregation(CustomGeneratedEvent aggregation1,
+                CustomGeneratedEvent aggregation2) {
+            ((PowerEvent) aggregation1).add((PowerEvent) aggregation2);
+        }
+    };
+
+    private static final String INDICATOR_NAME = "Power Indicator History: dominance";
+    private static final String TREE_NAME = "Power Indicator History";
+    private static final String LINE_COLOR_NAME = "Dominance line";
+    private static final Color LINE_COLOR_DEFAULT = Color.ORANGE;
+
+    private static final Class<?>[] INTERESTING_CUSTOM_EVENTS = new Class<?>[] {PowerEvent.class};
+
+    private static final long BUCKET_INTERVAL_NS = 1_000_000_000L;
+
+    private final Layer1ApiProvider provider;
+
+    private volatile DataStructureInterface dataStructureInterface;
+
+    private final Map<String, InvalidateInterface> invalidateInterfaceMap = new ConcurrentHashMap<>();
+
+    public PowerIndicatorHistory(Layer1ApiProvider provider) {
+        this.provider = provider;
+
+        ListenableHelper.addListeners(provider, this);
+    }
+
+    @Override
+    public void finish() {
+        provider.sendUserMessage(getGeneratorMessage(false));
+        provider.sendUserMessage(getIndicatorMessage(false));
+    }
+
+    @Override
+    public void onUserMessage(Object data) {
+        if (data.getClass() == UserMessageLayersChainCreatedTargeted.class) {
+            UserMessageLayersChainCreatedTargeted message = (UserMessageLayersChainCreatedTargeted) data;
+            if (message.targetClass == getClass()) {
+                provider.sendUserMessage(new Layer1ApiDataInterfaceRequestMessage(
+                    dataStructureInterface -> {
+                        this.dataStructureInterface = dataStructureInterface;
+                        invalidateInterfaceMap.values().forEach(InvalidateInterface::invalidate);
+                    }));
+                provider.sendUserMessage(getGeneratorMessage(true));
+                provider.sendUserMessage(getIndicatorMessage(true));
+            }
+        }
+    }
+
+    @Override
+    public void calculateValuesInRange(String indicatorName, String indicatorAlias, long t0, long intervalWidth,
+            int intervalsNumber, CalculatedResultListener listener) {
+        DataStructureInterface dataStructureInterface = this.dataStructureInterface;
+        if (dataStructureInterface == null) {
+            listener.setCompleted();
+            return;
+        }
+
+        List<TreeResponseInterval> result = dataStructureInterface.get(PowerIndicatorHistory.class, TREE_NAME, t0,
+                intervalWidth, intervalsNumber, indicatorAlias, INTERESTING_CUSTOM_EVENTS);
+
+        for (int i = 1; i <= intervalsNumber; i++) {
+            PowerEvent event = getPowerEvent(result.get(i));
+            listener.provideResponse(event == null ? Double.NaN : event.getMeanDominance());
+        }
+
+        listener.setCompleted();
+    }
+
+    @Override
+    public OnlineValueCalculatorAdapter createOnlineValueCalculator(String indicatorName, String indicatorAlias, long time,
+            Consumer<Object> listener, InvalidateInterface invalidateInterface) {
+        invalidateInterfaceMap.put(indicatorAlias, invalidateInterface);
+
+        return new OnlineValueCalculatorAdapter() {
+            @Override
+            public void onUserMessage(Object data) {
+                if (data instanceof CustomGeneratedEventAliased) {
+                    CustomGeneratedEventAliased aliasedEvent = (CustomGeneratedEventAliased) data;
+                    if (indicatorAlias.equals(aliasedEvent.alias) && aliasedEvent.event instanceof PowerEvent) {
+                        listener.accept(((PowerEvent) aliasedEvent.event).getMeanDominance());
+                    }
+                }
+            }
+        };
+    }
+
+    private PowerEvent getPowerEvent(TreeResponseInterval treeResponseInterval) {
+        PowerEvent event = (PowerEvent) treeResponseInterval.events.get(PowerEvent.class.toString());
+        return event == null || event.bucketsCount == 0 ? null : event;
+    }
+
+    private Layer1ApiUserMessageModifyIndicator getIndicatorMessage(boolean isAdd) {
+        return Layer1ApiUserMessageModifyIndicator.builder(PowerIndicatorHistory.class, INDICATOR_NAME)
+                .setIsAdd(isAdd)
+                .setGraphType(GraphType.BOTTOM)
+                .setOnlineCalculatable(this)
+                .setIndicatorColorScheme(new IndicatorColorScheme() {
+                    @Override
+                    public ColorDescription[] getColors() {
+                        return new ColorDescription[] {
+                                new ColorDescription(PowerIndicatorHistory.class, LINE_COLOR_NAME, LINE_COLOR_DEFAULT, false),
+                        };
+                    }
+
+                    @Override
+                    public String getColorFor(Double value) {
+                        return LINE_COLOR_NAME;
+                    }
+
+                    @Override
+                    public ColorIntervalResponse getColorIntervalsList(double valueFrom, double valueTo) {
+                        return new ColorIntervalResponse(new String[] {LINE_COLOR_NAME}, new double[] {});
+                    }
+                })
+                .setIndicatorLineStyle(IndicatorLineStyle.DEFAULT)
+                .build();
+    }
+
+    private Layer1ApiUserMessageAddStrategyUpdateGenerator getGeneratorMessage(boolean isAdd) {
+        return new Layer1ApiUserMessageAddStrategyUpdateGenerator(PowerIndicatorHistory.class, TREE_NAME, isAdd, true, new StrategyUpdateGenerator() {
+            private Consumer<CustomGeneratedEventAliased> consumer;
+
+            private long time = 0;
+
+            private final Map<String, AliasBuckets> aliasToBuckets = new HashMap<>();
+
+            @Override
+            public void setGeneratedEventsConsumer(Consumer<CustomGeneratedEventAliased> consumer) {
+                this.consumer = consumer;
+            }
+
+            @Override
+            public Consumer<CustomGeneratedEventAliased> getGeneratedEventsConsumer() {
+                return consumer;
+            }
+
+            @Override
+            public void onStatus(StatusInfo statusInfo) {
+            }
+
+            @Override
+            public void onOrderUpdated(OrderInfoUpdate orderInfoUpdate) {
+            }
+
+            @Override
+            public void onOrderExecuted(ExecutionInfo executionInfo) {
+            }
+
+            @Override
+            public void onBalance(BalanceInfo balanceInfo) {
+            }
+
+            @Override
+            public void onTrade(String alias, double price, int size, TradeInfo tradeInfo) {
+            }
+
+            @Override
+            public void onMarketMode(String alias, MarketMode marketMode) {
+            }
+
+            @Override
+            public void onDepth(String alias, boolean isBid, int price, int size) {
+                AliasBuckets buckets = aliasToBuckets.get(alias);
+                if (buckets == null) {
+                    buckets = new AliasBuckets(time);
+                    aliasToBuckets.put(alias, buckets);
+                }
+                buckets.data.onDepth(isBid, price, size);
+            }
+
+            @Override
+            public void onInstrumentAdded(String alias, InstrumentInfo instrumentInfo) {
+            }
+
+            @Override
+            public void onInstrumentRemoved(String alias) {
+                aliasToBuckets.remove(alias);
+            }
+
+            @Override
+            public void onInstrumentNotFound(String symbol, String exchange, String type) {
+            }
+
+            @Override
+            public void onInstrumentAlreadySubscribed(String symbol, String exchange, String type) {
+            }
+
+            @Override
+            public void onUserMessage(Object data) {
+            }
+
+            @Override
+            public void setTime(long time) {
+                this.time = time;
+
+                /*
+                 * Publish finished buckets. Called periodically even if nothing is
+                 * happening, so buckets without updates are closed too. Empty buckets
+                 * are not published, they would only grow the tree.
+                 */
+                long bucketStartTime = getBucketStartTime(time);
+                for (Entry<String, AliasBuckets> entry : aliasToBuckets.entrySet()) {
+                    AliasBuckets buckets = entry.getValue();
+                    PowerIntervalData data = buckets.data;
+                    if (buckets.isSnapshot) {
+                        // Snapshot arrives at one time, it ends once time moves on
+                        if (time != buckets.snapshotTime) {
+                            data.resetInterval();
+                            buckets.isSnapshot = false;
+                            buckets.bucketStartTime = bucketStartTime;
+                        }
+                    } else if (buckets.bucketStartTime != bucketStartTime) {
+                        if (data.getTotalBuyVolume() != 0 || data.getTotalSellVolume() != 0
+                                || data.getPulledBuyVolume() != 0 || data.getPulledSellVolume() != 0) {
+                            consumer.accept(new CustomGeneratedEventAliased(new PowerEvent(time, data), entry.getKey()));
+                        }
+                        data.resetInterval();
+                        buckets.bucketStartTime = bucketStartTime;
+                    }
+                }
+            }
+        }, new GeneratedEventInfo[] {new GeneratedEventInfo(PowerEvent.class, PowerEvent.class, POWER_EVENTS_AGGREGATOR)});
+    }
+
+    /**
+     * Depth accumulated by the generator for one alias
+     */
+    private static class AliasBuckets {
+        private final PowerIntervalData data = new PowerIntervalData();
+        /**
+         * Time of the first update, until time moves on updates are the
+         * snapshot of the book
+         */
+        private final long snapshotTime;
+        private boolean isSnapshot = true;
+        private long bucketStartTime;
+
+        private AliasBuckets(long snapshotTime) {
+            this.snapshotTime = snapshotTime;
+        }
+    }
+
+    private long getBucketStartTime(long time) {
+        return time - time % BUCKET_INTERVAL_NS;
+    }
+}
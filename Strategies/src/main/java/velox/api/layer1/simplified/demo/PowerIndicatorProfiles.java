@@ -0,0 +1,29 @@
+package velox.api.layer1.simplified.demo;
+
+import velox.api.layer1.annotations.Layer1ApiVersion;
+import velox.api.layer1.annotations.Layer1ApiVersionValue;
+import velox.api.layer1.annotations.Layer1SimpleAttachable;
+import velox.api.layer1.annotations.Layer1StrategyName;
+
+/**
+ * Profiles of all power indicator variants in one module, buckets are
+ * accumulated once for all of them. Variant modules loaded separately share
+ * level sizes through {@link SharedPowerDepth} but keep buckets of their own.
+ * Indicators are prefixed by profile names.
+ */
+@Layer1SimpleAttachable
+@Layer1StrategyName("Power Indicator Profiles")
+@Layer1ApiVersion(Layer1ApiVersionValue.VERSION2)
+public class PowerIndicatorProfiles extends PowerIndicatorEngine {
+
+    public PowerIndicatorProfiles() {
+        super(PowerIndicator2.createProfile(),
+                PowerIndicator3.createProfile(),
+                PowerIndicator4.createProfile(),
+                PowerIndicatorTest.createProfile(),
+                PowerIndicatorTest2.createProfile(),
+                PowerIndicatorTest3.createProfile(),
+                PowerIndicatorTest4.createProfile(),
+                PowerIndicatorTest5.createProfile());
+    }
+}
@@ -0,0 +1,161 @@
+package velox.api.layer1.simplified.demo;
+
+/**
+ * Depth data accumulated by {@link PowerIndicatorEngine} once per module and
+ * shared by all its profiles. Sizes of levels are kept in
+ * {@link SharedPowerDepth}, so every update is turned into the liquidity it
+ * added to or pulled from the book, rather than counting the whole size of a
+ * level each time it is refreshed. Volumes are totals of the current bucket,
+ * prices and VWAP are kept across buckets.
+ */
+public class PowerIntervalData {
+
+    private final SharedPowerDepth depth;
+    private final SharedPowerDepth.Subscriber subscriber;
+
+    private double totalBuyVolume = 0;
+    private double totalSellVolume = 0;
+    private double pulledBuyVolume = 0;
+    private double pulledSellVolume = 0;
+
+    private int latestBidPrice = 0;
+    private int latestAskPrice = 0;
+    private int lastPrice = 0;
+
+    private double vwapTotalVolume = 0;
+    private double vwapCumulativePriceVolume = 0;
+
+    /**
+     * Data with level sizes of its own
+     */
+    public PowerIntervalData() {
+        this(SharedPowerDepth.createPrivate());
+    }
+
+    /**
+     * Data that takes level sizes from the depth shared with other modules,
+     * {@link #close()} when done
+     */
+    PowerIntervalData(SharedPowerDepth depth) {
+        this.depth = depth;
+        subscriber = depth.subscribe();
+    }
+
+    void close() {
+        depth.unsubscribe(subscriber);
+    }
+
+    void onDepth(boolean isBid, int price, int size) {
+        int delta = depth.onDepth(subscriber, isBid, price, size);
+        if (delta < 0) {
+            if (isBid) {
+                pulledBuyVolume -= delta;
+            } else {
+                pulledSellVolume -= delta;
+            }
+        } else if (delta > 0) {
+            if (isBid) {
+                totalBuyVolume += delta;
+            } else {
+                totalSellVolume += delta;
+            }
+        }
+
+        if (size > 0) {
+            if (isBid) {
+                latestBidPrice = price;
+            } else {
+                latestAskPrice = price;
+            }
+            lastPrice = price;
+
+            // Mid price weighted by the volume of the interval so far
+            double tradePrice = (latestBidPrice + latestAskPrice) / 2.0;
+            double tradeVolume = totalBuyVolume + totalSellVolume;
+            vwapCumulativePriceVolume += tradePrice * tradeVolume;
+            vwapTotalVolume += tradeVolume;
+        }
+    }
+
+    void resetInterval() {
+        totalBuyVolume = 0;
+        totalSellVolume = 0;
+        pulledBuyVolume = 0;
+        pulledSellVolume = 0;
+    }
+
+    /**
+     * Current size of the level, 0 if it is empty
+     */
+    public int getLevelSize(boolean isBid, int price) {
+        return depth.getLevelSize(isBid, price);
+    }
+
+    /**
+     * Liquidity added to the bid side in the bucket
+     */
+    public double getTotalBuyVolume() {
+        return totalBuyVolume;
+    }
+
+    /**
+     * Liquidity added to the ask side in the bucket
+     */
+    public double getTotalSellVolume() {
+        return totalSellVolume;
+    }
+
+    /**
+     * Liquidity pulled from the bid side in the bucket, positive
+     */
+    public double getPulledBuyVolume() {
+        return pulledBuyVolume;
+    }
+
+    /**
+     * Liquidity pulled from the ask side in the bucket, positive
+     */
+    public double getPulledSellVolume() {
+        return pulledSellVolume;
+    }
+
+    /**
+     * Net liquidity flow of the bucket: change of bid liquidity minus change
+     * of ask liquidity
+     */
+    public double getDominance() {
+        return (totalBuyVolume - pulledBuyVolume) - (totalSellVolume - pulledSellVolume);
+    }
+
+    /**
+     * Price of the latest bid update, in ticks
+     */
+    public int getLatestBidPrice() {
+        return latestBidPrice;
+    }
+
+    /**
+     * Price of the latest ask update, in ticks
+     */
+    public int getLatestAskPrice() {
+        return latestAskPrice;
+    }
+
+    public double getMidPrice() {
+        return (latestBidPrice + latestAskPrice) / 2.0;
+    }
+
+    /**
+     * Price of the latest update on either side, in ticks
+     */
+    public int getLastPrice() {
+        return lastPrice;
+    }
+
+    /**
+     * @return VWAP of mid prices since the start or NaN if there were no updates
+     */
+    public double getVwap() {
+        return vwapCumulativePriceVolume / vwapTotalVolume;
+    }
+}
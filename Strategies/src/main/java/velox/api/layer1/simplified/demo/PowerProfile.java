@@ -0,0 +1,46 @@
+package velox.api.layer1.simplified.demo;
+
+import velox.api.layer1.data.InstrumentInfo;
+import velox.api.layer1.simplified.Api;
+
+/**
+ * Signal or trading logic run by {@link PowerIndicatorEngine}. Signals read
+ * data accumulated by the engine once per interval, so any number of profiles
+ * costs one depth accumulation. Raw depth updates and trades are only passed
+ * through {@link #onDepth(boolean, int, int)} and
+ * {@link #onTrade(double, int, boolean)} for simulated execution.
+ */
+public interface PowerProfile {
+
+    /**
+     * Name used to tell indicators of this profile from the others
+     */
+    String getName();
+
+    /**
+     * @param indicatorPrefix prepended to names of registered indicators, empty
+     *            if the profile is the only one in the engine
+     * @param eventLog where signals and simulated fills are recorded, owned by
+     *            the engine
+     */
+    void initialize(String alias, InstrumentInfo instrumentInfo, Api api, String indicatorPrefix,
+            PowerEventLog eventLog);
+
+    void onInterval(PowerIntervalData data);
+
+    /**
+     * Called for every depth update after the engine has accumulated it, for
+     * profiles that simulate execution with {@link PaperExchange}. Must be
+     * cheap, it runs for every update of the feed.
+     * @param size new size of the level
+     */
+    default void onDepth(boolean isBid, int price, int size) {
+    }
+
+    /**
+     * Called for every trade, see {@link #onDepth(boolean, int, int)}
+     * @param price in ticks
+     */
+    default void onTrade(double price, int size, boolean isBidAggressor) {
+    }
+}
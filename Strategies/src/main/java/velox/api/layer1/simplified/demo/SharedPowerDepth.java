@@ -0,0 +1,224 @@
+package velox.api.layer1.simplified.demo;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import velox.api.layer1.common.Log;
+
+/**
+ * Level sizes of one instrument, shared by all power indicator modules loaded
+ * on it, so every depth update is looked up and stored once no matter how many
+ * variants are shown. Buckets stay per module: each module keeps its own
+ * {@link PowerIntervalData} and only takes the size changes from here.
+ * <p>
+ * Every module receives the same depth stream, so each one counts the updates
+ * it has received and an update is applied only by the first module that
+ * reaches it, others pick up the recorded size change, verified against
+ * recently applied updates. A module whose update differs from the recorded
+ * one (it was added later and is still getting its snapshot) is out of sync:
+ * it takes changes against the current sizes without applying them until its
+ * update matches a recent one, until an update it received first is applied
+ * by the leading module, or until nobody else moves the stream on, in which
+ * case it leads itself.
+ * <p>
+ * Methods are synchronized, modules of one instrument normally get data on the
+ * same thread so the lock is not contended.
+ */
+public class SharedPowerDepth {
+
+    /**
+     * Number of recent updates remembered to verify that lagging modules see the same stream
+     */
+    private static final int RECENT_UPDATES_COUNT = 64;
+    private static final int RECENT_UPDATES_MASK = RECENT_UPDATES_COUNT - 1;
+
+    private static final Map<String, SharedPowerDepth> sharedDepths = new HashMap<>();
+
+    /**
+     * Position of one module in the depth stream
+     */
+    public static final class Subscriber {
+        private long eventsCount;
+        private boolean isInSync;
+        private boolean isStreamMismatchReported = false;
+
+        /**
+         * Update received while out of sync and not applied by anybody yet, 0 if none
+         */
+        private long pendingNumber = 0;
+        private boolean pendingIsBid;
+        private int pendingPrice;
+        private int pendingSize;
+
+        private Subscriber() {
+        }
+    }
+
+    /**
+     * Null for data of a single module that is not registered
+     */
+    private final String alias;
+
+    private final LevelSizes bidSizes = new LevelSizes();
+    private final LevelSizes askSizes = new LevelSizes();
+
+    private long eventsCount = 0;
+    private int subscribersCount = 0;
+    private int referencesCount = 0;
+
+    private final boolean[] recentSides = new boolean[RECENT_UPDATES_COUNT];
+    private final int[] recentPrices = new int[RECENT_UPDATES_COUNT];
+    private final int[] recentSizes = new int[RECENT_UPDATES_COUNT];
+    private final int[] recentDeltas = new int[RECENT_UPDATES_COUNT];
+
+    /**
+     * Get shared depth of the instrument, must be paired with {@link #release(SharedPowerDepth)}
+     */
+    public static SharedPowerDepth acquire(String alias) {
+        synchronized (sharedDepths) {
+            SharedPowerDepth sharedDepth = sharedDepths.get(alias);
+            if (sharedDepth == null) {
+                sharedDepth = new SharedPowerDepth(alias);
+                sharedDepths.put(alias, sharedDepth);
+            }
+            sharedDepth.referencesCount++;
+            return sharedDepth;
+        }
+    }
+
+    public static void release(SharedPowerDepth sharedDepth) {
+        if (sharedDepth.alias == null) {
+            return;
+        }
+        synchronized (sharedDepths) {
+            if (--sharedDepth.referencesCount == 0) {
+                sharedDepths.remove(sharedDepth.alias);
+            }
+        }
+    }
+
+    /**
+     * Depth that is not shared with other modules, for offline runs and
+     * history. Does not need to be released.
+     */
+    public static SharedPowerDepth createPrivate() {
+        return new SharedPowerDepth(null);
+    }
+
+    private SharedPowerDepth(String alias) {
+        this.alias = alias;
+    }
+
+    /**
+     * Start counting updates for a module. Other modules may be in the middle
+     * of the stream, so a module that is not the only one starts out of sync
+     * and finds its position on its first updates.
+     */
+    public synchronized Subscriber subscribe() {
+        Subscriber subscriber = new Subscriber();
+        subscriber.eventsCount = eventsCount;
+        subscriber.isInSync = subscribersCount == 0;
+        subscribersCount++;
+        return subscriber;
+    }
+
+    /**
+     * If the leading module is gone the next one to reach an update applies
+     * it, out of sync modules take over once the stream stops moving
+     */
+    public synchronized void unsubscribe(Subscriber subscriber) {
+        subscribersCount--;
+    }
+
+    /**
+     * @return change of the level size, negative if liquidity was pulled
+     */
+    public synchronized int onDepth(Subscriber subscriber, boolean isBid, int price, int size) {
+        if (subscriber.isInSync) {
+            long eventNumber = subscriber.eventsCount + 1;
+            if (eventNumber > eventsCount) {
+                subscriber.eventsCount = eventNumber;
+                return record(isBid, price, size);
+            }
+            if (isRecent(eventNumber, isBid, price, size)) {
+                subscriber.eventsCount = eventNumber;
+                return recentDeltas[(int) eventNumber & RECENT_UPDATES_MASK];
+            }
+            if (!subscriber.isStreamMismatchReported) {
+                Log.warn("Power indicator: depth stream differs between modules for " + alias
+                        + ", level sizes of the leading module are used until the streams match again");
+                subscriber.isStreamMismatchReported = true;
+            }
+            subscriber.isInSync = false;
+            subscriber.pendingNumber = 0;
+        }
+        return resync(subscriber, isBid, price, size);
+    }
+
+    /**
+     * Current size of the level as applied by the leading module, 0 if it is empty
+     */
+    public synchronized int getLevelSize(boolean isBid, int price) {
+        return (isBid ? bidSizes : askSizes).get(price);
+    }
+
+    /**
+     * Find position of an out of sync module in the stream
+     */
+    private int resync(Subscriber subscriber, boolean isBid, int price, int size) {
+        long pendingNumber = subscriber.pendingNumber;
+        if (pendingNumber != 0) {
+            subscriber.pendingNumber = 0;
+            if (eventsCount == pendingNumber - 1) {
+                // Nobody else moved the stream on, this module leads now. Change of the
+                // pending update was already taken when it was received.
+                record(subscriber.pendingIsBid, subscriber.pendingPrice, subscriber.pendingSize);
+                subscriber.eventsCount = pendingNumber;
+                subscriber.isInSync = true;
+                return onDepth(subscriber, isBid, price, size);
+            }
+            if (isRecent(pendingNumber, subscriber.pendingIsBid, subscriber.pendingPrice, subscriber.pendingSize)) {
+                // Leading module applied the update after this one received it
+                subscriber.eventsCount = pendingNumber;
+                subscriber.isInSync = true;
+                return onDepth(subscriber, isBid, price, size);
+            }
+        }
+
+        long oldestNumber = Math.max(0, eventsCount - RECENT_UPDATES_COUNT);
+        for (long eventNumber = eventsCount; eventNumber > oldestNumber; eventNumber--) {
+            if (isRecent(eventNumber, isBid, price, size)) {
+                subscriber.eventsCount = eventNumber;
+                subscriber.isInSync = true;
+                return recentDeltas[(int) eventNumber & RECENT_UPDATES_MASK];
+            }
+        }
+
+        // Not applied yet, check again on the next update
+        subscriber.pendingNumber = eventsCount + 1;
+        subscriber.pendingIsBid = isBid;
+        subscriber.pendingPrice = price;
+        subscriber.pendingSize = size;
+        return size - (isBid ? bidSizes : askSizes).get(price);
+    }
+
+    private boolean isRecent(long eventNumber, boolean isBid, int price, int size) {
+        if (eventNumber <= 0 || eventNumber > eventsCount || eventsCount - eventNumber >= RECENT_UPDATES_COUNT) {
+            return false;
+        }
+        int index = (int) eventNumber & RECENT_UPDATES_MASK;
+        return recentSides[index] == isBid && recentPrices[index] == price && recentSizes[index] == size;
+    }
+
+    private int record(boolean isBid, int price, int size) {
+        long eventNumber = ++eventsCount;
+        int delta = size - (isBid ? bidSizes : askSizes).put(price, size);
+
+        int index = (int) eventNumber & RECENT_UPDATES_MASK;
+        recentSides[index] = isBid;
+        recentPrices[index] = price;
+        recentSizes[index] = size;
+        recentDeltas[index] = delta;
+        return delta;
+    }
+}
@@ -0,0 +1,33 @@
+package velox.api.layer1.simplified.demo;
+
+import velox.api.layer1.messages.indicators.Layer1ApiUserMessageModifyIndicator;
+import velox.api.layer1.simplified.Api;
+import velox.api.layer1.simplified.Indicator;
+
+import java.awt.*;
+
+/**
+ * Buy and sell signal markers, placing a marker on one side clears the other
+ */
+class SignalMarkers {
+
+    private Indicator buySignalMarker;
+    private Indicator sellSignalMarker;
+
+    void register(Api api, String indicatorPrefix) {
+        buySignalMarker = api.registerIndicator(indicatorPrefix + "Buy Signal Marker", Layer1ApiUserMessageModifyIndicator.GraphType.PRIMARY);
+        sellSignalMarker = api.registerIndicator(indicatorPrefix + "Sell Signal Marker", Layer1ApiUserMessageModifyIndicator.GraphType.PRIMARY);
+    }
+
+    void place(boolean isBuySignal, double price) {
+        if (isBuySignal) {
+            buySignalMarker.addPoint(price);
+            buySignalMarker.setColor(Color.GREEN);
+            sellSignalMarker.addPoint(0);
+        } else {
+            sellSignalMarker.addPoint(price);
+            sellSignalMarker.setColor(Color.RED);
+            buySignalMarker.addPoint(0);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package velox.api.layer1.simplified.demo;
+
+import velox.api.layer1.data.InstrumentInfo;
+import velox.api.layer1.messages.indicators.Layer1ApiUserMessageModifyIndicator;
+import velox.api.layer1.simplified.Api;
+import velox.api.layer1.simplified.Indicator;
+
+import java.awt.*;
+
+/**
+ * Simulated trading on the side with more volume in the interval: bids at the
+ * best bid (to buy and cover shorts) when buy volume is greater, offers at the
+ * best ask (to sell or short) otherwise. Orders rest in a
+ * {@link PaperExchange} until trades get through the queue ahead of them, an
+ * order on the other side is cancelled when the volume flips.
+ */
+public class VolumeFlipProfile implements PowerProfile, PaperExchange.FillListener {
+
+    private final String name;
+    private final double initialCash;
+    private final double tradeAmount;
+
+    private Indicator profitIndicator;
+
+    private String alias;
+    private PowerEventLog eventLog;
+
+    private final PaperExchange exchange = new PaperExchange(2, this);
+    private int buyOrderId = PaperExchange.NO_ORDER;
+    private int sellOrderId = PaperExchange.NO_ORDER;
+
+    private double cash;
+    private double position = 0; // Current position in units, negative if short
+
+    /**
+     * @param tradeAmount cash spent or received on each trade
+     */
+    public VolumeFlipProfile(String name, double initialCash, double tradeAmount) {
+        this.name = name;
+        this.initialCash = initialCash;
+        this.tradeAmount = tradeAmount;
+        cash = initialCash;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void initialize(String alias, InstrumentInfo instrumentInfo, Api api, String indicatorPrefix,
+            PowerEventLog eventLog) {
+        this.alias = alias;
+        this.eventLog = eventLog;
+        profitIndicator = api.registerIndicator(indicatorPrefix + "Profit", Layer1ApiUserMessageModifyIndicator.GraphType.PRIMARY);
+        profitIndicator.setColor(Color.BLUE);
+    }
+
+    @Override
+    public void onInterval(PowerIntervalData data) {
+        double totalBuyVolume = data.getTotalBuyVolume();
+        double totalSellVolume = data.getTotalSellVolume();
+        double lastPrice = data.getLastPrice();
+
+        if (totalBuyVolume > totalSellVolume) {
+            exchange.cancel(sellOrderId);
+            // Buy if there is enough cash, and close short positions if any
+            int price = data.getLatestBidPrice();
+            if (!exchange.isActive(buyOrderId) && price > 0) {
+                double units = cash >= tradeAmount ? tradeAmount / price : 0;
+                if (position < 0) {
+                    units += Math.min(-position, tradeAmount / price);
+                }
+                if (units > 0 && cash >= units * price) {
+                    buyOrderId = exchange.placeLimit(true, price, units, data.getLevelSize(true, price));
+                }
+            }
+        } else if (totalSellVolume > totalBuyVolume) {
+            exchange.cancel(buyOrderId);
+            // Sell, or short if there is not enough position
+            int price = data.getLatestAskPrice();
+            if (!exchange.isActive(sellOrderId) && price > 0) {
+                sellOrderId = exchange.placeLimit(false, price, tradeAmount / price, data.getLevelSize(false, price));
+            }
+        }
+
+        // Calculate current profit including short positions
+        double profit = cash + (position * lastPrice) - initialCash;
+        profitIndicator.addPoint(profit);
+    }
+
+    @Override
+    public void onDepth(boolean isBid, int price, int size) {
+        exchange.onDepth(isBid, price, size);
+    }
+
+    @Override
+    public void onTrade(double price, int size, boolean isBidAggressor) {
+        exchange.onTrade(price, size, isBidAggressor);
+    }
+
+    @Override
+    public void onFill(int orderId, boolean isBuy, int price, double size, double remainingSize) {
+        if (isBuy) {
+            cash -= size * price;
+            position += size;
+        } else {
+            cash += size * price;
+            position -= size;
+        }
+        eventLog.fill(alias, name, isBuy, size, price, Double.NaN);
+    }
+}
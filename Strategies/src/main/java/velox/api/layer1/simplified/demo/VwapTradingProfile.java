@@ -0,0 +1,105 @@
+package velox.api.layer1.simplified.demo;
+
+import velox.api.layer1.data.InstrumentInfo;
+import velox.api.layer1.messages.indicators.Layer1ApiUserMessageModifyIndicator;
+import velox.api.layer1.simplified.Api;
+import velox.api.layer1.simplified.Indicator;
+
+import java.awt.*;
+
+/**
+ * Simulated trading around VWAP: buys when the price is below VWAP by the buy
+ * threshold and sells when it is above VWAP by the sell threshold.
+ */
+public class VwapTradingProfile implements PowerProfile {
+
+    private static final int QUANTITY = 100;
+
+    private final String name;
+    private final double vwapBuyThreshold;
+    private final double vwapSellThreshold;
+    private final double transactionCost;
+
+    private final SignalMarkers markers = new SignalMarkers();
+    private Indicator profitIndicator;
+    private Indicator vwapIndicator;
+
+    private String alias;
+    private PowerEventLog eventLog;
+
+    private int sharesOwned = 0;
+    private double totalProfit = 0.0;
+
+    /**
+     * @param vwapBuyThreshold buy when the price is below VWAP multiplied by this
+     * @param vwapSellThreshold sell when the price is above VWAP multiplied by this
+     * @param transactionCost cost per share
+     */
+    public VwapTradingProfile(String name, double vwapBuyThreshold, double vwapSellThreshold, double transactionCost) {
+        this.name = name;
+        this.vwapBuyThreshold = vwapBuyThreshold;
+        this.vwapSellThreshold = vwapSellThreshold;
+        this.transactionCost = transactionCost;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void initialize(String alias, InstrumentInfo instrumentInfo, Api api, String indicatorPrefix,
+            PowerEventLog eventLog) {
+        this.alias = alias;
+        this.eventLog = eventLog;
+        markers.register(api, indicatorPrefix);
+
+        profitIndicator = api.registerIndicator(indicatorPrefix + "Profit", Layer1ApiUserMessageModifyIndicator.GraphType.PRIMARY);
+        profitIndicator.setColor(Color.BLUE);
+
+        vwapIndicator = api.registerIndicator(indicatorPrefix + "VWAP", Layer1ApiUserMessageModifyIndicator.GraphType.PRIMARY);
+        vwapIndicator.setColor(Color.ORANGE);
+    }
+
+    @Override
+    public void onInterval(PowerIntervalData data) {
+        double vwap = data.getVwap();
+        if (!Double.isNaN(vwap)) {
+            vwapIndicator.addPoint(vwap);
+        }
+
+        double currentPrice = data.getMidPrice();
+
+        // Buy condition
+        if (currentPrice < vwap * vwapBuyThreshold) {
+            double markerPrice = data.getLatestBidPrice();
+            eventLog.signal(alias, name, true, markerPrice, currentPrice / vwap);
+            markers.place(true, markerPrice);
+            buyShares(QUANTITY, markerPrice);
+        }
+
+        // Sell condition
+        if (sharesOwned > 0 && currentPrice > vwap * vwapSellThreshold) {
+            double markerPrice = data.getLatestAskPrice();
+            eventLog.signal(alias, name, false, markerPrice, currentPrice / vwap);
+            markers.place(false, markerPrice);
+            sellShares(QUANTITY, markerPrice);
+        }
+    }
+
+    private void buyShares(int quantity, double price) {
+        sharesOwned += quantity;
+        totalProfit -= (quantity * price) + (quantity * transactionCost); // Subtract the cost of buying shares and transaction costs from total profit
+        profitIndicator.addPoint(totalProfit);
+        eventLog.fill(alias, name, true, quantity, price, totalProfit);
+    }
+
+    private void sellShares(int quantity, double price) {
+        if (sharesOwned >= quantity) {
+            sharesOwned -= quantity;
+            totalProfit += (quantity * price) - (quantity * transactionCost); // Add the revenue from selling shares and subtract transaction costs to total profit
+            profitIndicator.addPoint(totalProfit);
+            eventLog.fill(alias, name, false, quantity, price, totalProfit);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package velox.api.layer1.simplified.demo;
+
+/**
+ * Statistics of the last {@code windowSize} values. Values are kept in a ring
+ * buffer, max and min are maintained with monotonic deques and mean/variance
+ * with running sums, so adding a value and every query are O(1) regardless of
+ * the window size and nothing is allocated after construction.
+ */
+public class WindowedStatistics {
+
+    private final int windowSize;
+    private final double[] values;
+    /**
+     * Number of values added so far, value number n is stored at n % windowSize
+     */
+    private long addedCount = 0;
+
+    private final MonotonicDeque maxDeque;
+    private final MonotonicDeque minDeque;
+
+    private double sum = 0;
+    private double sumOfSquares = 0;
+    /**
+     * Running sums accumulate rounding errors, so they are recalculated from
+     * the buffer once per window
+     */
+    private int addedSinceRecalculation = 0;
+
+    /**
+     * Numbers of values in the window, ordered by number, with values ordered
+     * so that the first one is the max (or min) of the window
+     */
+    private final class MonotonicDeque {
+        private final boolean isMax;
+        private final long[] numbers = new long[windowSize];
+        private int head = 0;
+        private int size = 0;
+
+        private MonotonicDeque(boolean isMax) {
+            this.isMax = isMax;
+        }
+
+        private void add(long number, double value) {
+            while (size != 0 && !isBetter(valueOf(numbers[(head + size - 1) % windowSize]), value)) {
+                size--;
+            }
+            numbers[(head + size) % windowSize] = number;
+            size++;
+        }
+
+        private void removeExpired(long firstNumberInWindow) {
+            while (size != 0 && numbers[head] < firstNumberInWindow) {
+                head = (head + 1) % windowSize;
+                size--;
+            }
+        }
+
+        private boolean isBetter(double value, double than) {
+            return isMax ? value > than : value < than;
+        }
+
+        private double first() {
+            return size == 0 ? Double.NaN : valueOf(numbers[head]);
+        }
+
+        private void clear() {
+            head = 0;
+            size = 0;
+        }
+    }
+
+    public WindowedStatistics(int windowSize) {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("Window size must be positive: " + windowSize);
+        }
+        this.windowSize = windowSize;
+        values = new double[windowSize];
+        maxDeque = new MonotonicDeque(true);
+        minDeque = new MonotonicDeque(false);
+    }
+
+    /**
+     * Add value, the oldest one leaves the window once it is full
+     */
+    public void add(double value) {
+        int index = (int) (addedCount % windowSize);
+        if (addedCount >= windowSize) {
+            double removed = values[index];
+            sum -= removed;
+            sumOfSquares -= removed * removed;
+        }
+        values[index] = value;
+        sum += value;
+        sumOfSquares += value * value;
+
+        long number = addedCount++;
+        maxDeque.removeExpired(number - windowSize + 1);
+        minDeque.removeExpired(number - windowSize + 1);
+        maxDeque.add(number, value);
+        minDeque.add(number, value);
+
+        if (++addedSinceRecalculation == windowSize) {
+            recalculateSums();
+        }
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    /**
+     * Number of values in the window
+     */
+    public int size() {
+        return (int) Math.min(addedCount, windowSize);
+    }
+
+    public boolean isEmpty() {
+        return addedCount == 0;
+    }
+
+    /**
+     * @return max value in the window or NaN if it is empty
+     */
+    public double getMax() {
+        return maxDeque.first();
+    }
+
+    /**
+     * @return min value in the window or NaN if it is empty
+     */
+    public double getMin() {
+        return minDeque.first();
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    /**
+     * @return mean of values in the window or NaN if it is empty
+     */
+    public double getMean() {
+        return isEmpty() ? Double.NaN : sum / size();
+    }
+
+    /**
+     * @return population variance of values in the window or NaN if it is empty
+     */
+    public double getVariance() {
+        if (isEmpty()) {
+            return Double.NaN;
+        }
+        double mean = sum / size();
+        return Math.max(0, sumOfSquares / size() - mean * mean);
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    public void clear() {
+        addedCount = 0;
+        sum = 0;
+        sumOfSquares = 0;
+        addedSinceRecalculation = 0;
+        maxDeque.clear();
+        minDeque.clear();
+    }
+
+    private double valueOf(long number) {
+        return values[(int) (number % windowSize)];
+    }
+
+    private void recalculateSums() {
+        sum = 0;
+        sumOfSquares = 0;
+        int size = size();
+        for (int i = 0; i < size; i++) {
+            sum += values[i];
+            sumOfSquares += values[i] * values[i];
+        }
+        addedSinceRecalculation = 0;
+    }
+}
@@ -0,0 +1,30 @@
+package velox.api.layer1.utils;
+
+import java.io.File;
+
+import velox.api.layer1.common.Log;
+
+/**
+ * Rolling of log files written by strategies: file.log is renamed to
+ * file.log.1, file.log.1 to file.log.2 and so on, the oldest one is deleted.
+ */
+public class RollingFiles {
+
+    /**
+     * Move the file out of the way so the next write starts a new one
+     * @param filesCount number of old files kept
+     * @param logPrefix prepended to warnings, e.g. "Helper strategy"
+     */
+    public static void roll(File file, int filesCount, String logPrefix) {
+        File oldest = new File(file.getPath() + "." + filesCount);
+        if (oldest.exists() && !oldest.delete()) {
+            Log.warn(logPrefix + ": failed to delete " + oldest);
+        }
+        for (int i = filesCount - 1; i >= 0; i--) {
+            File current = i == 0 ? file : new File(file.getPath() + "." + i);
+            if (current.exists()) {
+                current.renameTo(new File(file.getPath() + "." + (i + 1)));
+            }
+        }
+    }
+}
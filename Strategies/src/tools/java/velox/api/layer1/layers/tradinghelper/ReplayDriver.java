@@ -0,0 +1,241 @@
+package velox.api.layer1.layers.tradinghelper;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+import velox.api.layer1.config.beans.HelperStrategySettings;
+import velox.api.layer1.data.InstrumentInfo;
+import velox.api.layer1.data.TradeInfo;
+import velox.api.layer1.messages.UserMessageLayersChainCreatedTargeted;
+import velox.api.layer1.messages.indicators.SettingsAccess;
+import velox.api.layer1.simpledemo.datarecording.RecordedFeed;
+
+/**
+ * Load test of helper strategies without Bookmap. Reads text depth file
+ * written by FeedRecorder demo, places a few working orders on each side of
+ * every instrument once its book has both sides and streams all recorded events
+ * through the strategies as fast as possible. Order actions are acknowledged
+ * by {@link ReplayProvider}.
+ * <p>
+ * Usage: {@code ReplayDriver <depth file> [Chase,Escape,Execute] [orders per side]}
+ * <p>
+ * Recorded file is parsed before the replay, so reported allocation only
+ * includes strategies and their helpers. Allocation is measured with
+ * com.sun.management.ThreadMXBean and is not reported if JVM does not
+ * support it.
+ */
+public class ReplayDriver {
+
+    private static final int ORDER_SIZE = 1;
+    /**
+     * Distance in ticks between seeded orders
+     */
+    private static final int ORDERS_SPACING = 2;
+
+    private static final class Instrument {
+        private final String alias;
+        private final InstrumentInfo info;
+        private final TickOrderBook orderBook = new TickOrderBook();
+        private boolean isSeeded = false;
+
+        private Instrument(String alias, InstrumentInfo info) {
+            this.alias = alias;
+            this.info = info;
+        }
+    }
+
+    private final List<Instrument> instruments = new ArrayList<>();
+
+    private RecordedFeed feed;
+
+    private final ReplayProvider replayProvider = new ReplayProvider();
+    private final List<Layer1ApiHelperStrategyAbstract<?>> strategies = new ArrayList<>();
+    private final int ordersPerSide;
+
+    public ReplayDriver(int ordersPerSide) {
+        this.ordersPerSide = ordersPerSide;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Usage: ReplayDriver <depth file> [Chase,Escape,Execute] [orders per side]");
+            return;
+        }
+
+        String[] strategyNames = args.length > 1 ? args[1].split(",") : new String[] {"Chase", "Escape", "Execute"};
+        int ordersPerSide = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        ReplayDriver driver = new ReplayDriver(ordersPerSide);
+        driver.load(new File(args[0]));
+        for (String strategyName : strategyNames) {
+            driver.addStrategy(strategyName.trim());
+        }
+        driver.run();
+    }
+
+    public void load(File depthFile) throws IOException {
+        feed = RecordedFeed.load(depthFile);
+        for (InstrumentInfo info : feed.getInstruments()) {
+            instruments.add(new Instrument(info.symbol, info));
+        }
+    }
+
+    /**
+     * @param strategyName Chase, Escape or Execute
+     */
+    public void addStrategy(String strategyName) {
+        Layer1ApiHelperStrategyAbstract<?> strategy = createStrategy(strategyName, replayProvider);
+        for (Instrument instrument : instruments) {
+            strategy.onInstrumentAdded(instrument.alias, instrument.info);
+        }
+        replayProvider.addListener(strategy);
+        strategies.add(strategy);
+    }
+
+    /**
+     * Create working strategy that is enabled for all instruments with default parameters
+     * @param strategyName Chase, Escape or Execute
+     */
+    static Layer1ApiHelperStrategyAbstract<?> createStrategy(String strategyName, ReplayProvider replayProvider) {
+        Layer1ApiHelperStrategyAbstract<?> strategy;
+        switch (strategyName) {
+        case "Chase":
+            strategy = new Layer1ApiHelperChaseStrategy(replayProvider.getProvider());
+            break;
+        case "Escape":
+            strategy = new Layer1ApiHelperEscapeStrategy(replayProvider.getProvider());
+            break;
+        case "Execute":
+            strategy = new Layer1ApiHelperExecuteStrategy(replayProvider.getProvider());
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown strategy: " + strategyName);
+        }
+
+        strategy.acceptSettingsInterface(new EnabledSettingsAccess());
+        strategy.onUserMessage(new UserMessageLayersChainCreatedTargeted(strategy.getClass()));
+        return strategy;
+    }
+
+    public void run() {
+        TradeInfo bidAggressorTrade = new TradeInfo(false, true);
+        TradeInfo askAggressorTrade = new TradeInfo(false, false);
+
+        long allocatedBefore = getAllocatedBytes();
+        long startNanos = System.nanoTime();
+
+        int eventsCount = feed.getEventsCount();
+        for (int i = 0; i < eventsCount; i++) {
+            Instrument instrument = instruments.get(feed.getInstrument(i));
+            int price = (int) Math.round(feed.getPrice(i));
+            int size = feed.getSize(i);
+            byte eventType = feed.getType(i);
+            switch (eventType) {
+            case RecordedFeed.EVENT_DEPTH_BID:
+            case RecordedFeed.EVENT_DEPTH_ASK: {
+                boolean isBid = eventType == RecordedFeed.EVENT_DEPTH_BID;
+                instrument.orderBook.onUpdate(isBid, price, size);
+                for (Layer1ApiHelperStrategyAbstract<?> strategy : strategies) {
+                    strategy.onDepth(instrument.alias, isBid, price, size);
+                }
+                if (!instrument.isSeeded) {
+                    seedOrders(instrument);
+                }
+                break;
+            }
+            default: {
+                TradeInfo tradeInfo = eventType == RecordedFeed.EVENT_TRADE_BID_AGGRESSOR ? bidAggressorTrade : askAggressorTrade;
+                for (Layer1ApiHelperStrategyAbstract<?> strategy : strategies) {
+                    strategy.onTrade(instrument.alias, price, size, tradeInfo);
+                }
+                break;
+            }
+            }
+            replayProvider.deliverUpdates();
+        }
+
+        long elapsedNanos = System.nanoTime() - startNanos;
+        long allocatedAfter = getAllocatedBytes();
+
+        for (Layer1ApiHelperStrategyAbstract<?> strategy : strategies) {
+            for (InstrumentState<?> state : strategy.instruments.values()) {
+                System.out.println(strategy.userReadableStrategyName + " " + state.alias + ": " + MetricsReporter.getSummary(state));
+            }
+            strategy.finish();
+        }
+
+        System.out.println("Events: " + eventsCount + ", instruments: " + instruments.size() + ", strategies: " + strategies.size());
+        System.out.println(String.format("Time: %.3f s, %.0f events/s", elapsedNanos / 1e9,
+                elapsedNanos == 0 ? 0. : eventsCount * 1e9 / elapsedNanos));
+        System.out.println("Order actions: moves " + replayProvider.getMovesCount()
+                + ", cancels " + replayProvider.getCancelsCount()
+                + ", for unknown orders " + replayProvider.getUnknownOrderCount()
+                + ", working orders left " + replayProvider.getWorkingOrdersCount());
+        if (allocatedBefore >= 0 && allocatedAfter >= 0 && eventsCount > 0) {
+            System.out.println(String.format("Allocated: %.1f bytes/event", (allocatedAfter - allocatedBefore) / (double) eventsCount));
+        }
+    }
+
+    private void seedOrders(Instrument instrument) {
+        TickOrderBook orderBook = instrument.orderBook;
+        if (orderBook.isEmpty(true) || orderBook.isEmpty(false)) {
+            return;
+        }
+        instrument.isSeeded = true;
+
+        double pips = instrument.info.pips;
+        int bestBid = orderBook.getBestPrice(true);
+        int bestAsk = orderBook.getBestPrice(false);
+        for (int i = 1; i <= ordersPerSide; i++) {
+            replayProvider.placeOrder(instrument.alias, true, (bestBid - i * ORDERS_SPACING) * pips, ORDER_SIZE);
+            replayProvider.placeOrder(instrument.alias, false, (bestAsk + i * ORDERS_SPACING) * pips, ORDER_SIZE);
+        }
+    }
+
+    /**
+     * @return bytes allocated by all live threads, -1 if not supported
+     */
+    private static long getAllocatedBytes() {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (!(threadBean instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+        if (!allocationBean.isThreadAllocatedMemorySupported() || !allocationBean.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        long total = 0;
+        for (long allocated : allocationBean.getThreadAllocatedBytes(allocationBean.getAllThreadIds())) {
+            if (allocated > 0) {
+                total += allocated;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Every strategy is enabled for every instrument with default parameters
+     */
+    private static class EnabledSettingsAccess implements SettingsAccess {
+        @Override
+        public Object getSettings(String alias, String strategyName, Class<?> settingsClass) {
+            try {
+                Object settings = settingsClass.getConstructor().newInstance();
+                if (settings instanceof HelperStrategySettings) {
+                    ((HelperStrategySettings) settings).setEnabled(true);
+                }
+                return settings;
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Replay: can not create settings " + settingsClass, e);
+            }
+        }
+
+        @Override
+        public void setSettings(String alias, String strategyName, Object settingsObject, Class<?> settingsClass) {
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package velox.api.layer1.layers.tradinghelper;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import velox.api.layer1.Layer1ApiProvider;
+import velox.api.layer1.Layer1ApiTradingAdapter;
+import velox.api.layer1.common.Log;
+import velox.api.layer1.data.OrderCancelParameters;
+import velox.api.layer1.data.OrderInfoBuilder;
+import velox.api.layer1.data.OrderInfoUpdate;
+import velox.api.layer1.data.OrderMoveParameters;
+import velox.api.layer1.data.OrderStatus;
+import velox.api.layer1.data.OrderType;
+import velox.api.layer1.simpledemo.datarecording.RecordedFeed;
+
+/**
+ * In-process stand-in for {@link Layer1ApiProvider} used by {@link ReplayDriver}.
+ * Captures order updates sent by strategies and acknowledges them like a
+ * broker would: moves change the limit price of the order, cancels remove it.
+ * Acknowledgements are queued and delivered by {@link #deliverUpdates()}, so
+ * strategies never receive them while they are evaluating.
+ * All other provider methods are accepted and ignored.
+ */
+public class ReplayProvider implements InvocationHandler {
+
+    private final Layer1ApiProvider provider = (Layer1ApiProvider) Proxy.newProxyInstance(
+            Layer1ApiProvider.class.getClassLoader(), new Class<?>[] {Layer1ApiProvider.class}, this);
+
+    private final List<Layer1ApiTradingAdapter> listeners = new ArrayList<>();
+
+    private final Map<String, OrderInfoBuilder> orders = new HashMap<>();
+    private final ArrayDeque<OrderInfoUpdate> pendingUpdates = new ArrayDeque<>();
+    private int nextOrderId = 0;
+
+    private long movesCount = 0;
+    private long cancelsCount = 0;
+    private long unknownOrderCount = 0;
+
+    public Layer1ApiProvider getProvider() {
+        return provider;
+    }
+
+    /**
+     * Listener receives acknowledgements of all orders, like every strategy in Bookmap does
+     */
+    public void addListener(Layer1ApiTradingAdapter listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Place working limit order, acknowledgement is delivered with other updates
+     * @return order id
+     */
+    public synchronized String placeOrder(String alias, boolean isBuy, double limitPrice, int size) {
+        String orderId = "replay-" + nextOrderId++;
+        OrderInfoBuilder builder = new OrderInfoBuilder(alias, orderId, isBuy, OrderType.LMT, orderId, false);
+        builder.setLimitPrice(limitPrice).setUnfilled(size).setStatus(OrderStatus.WORKING);
+        orders.put(orderId, builder);
+        pendingUpdates.add(builder.build());
+        return orderId;
+    }
+
+    /**
+     * Send queued acknowledgements to listeners
+     */
+    public void deliverUpdates() {
+        OrderInfoUpdate update;
+        while ((update = pollUpdate()) != null) {
+            for (Layer1ApiTradingAdapter listener : listeners) {
+                listener.onOrderUpdated(update);
+            }
+        }
+    }
+
+    private synchronized OrderInfoUpdate pollUpdate() {
+        return pendingUpdates.poll();
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+        case "updateOrder":
+            onUpdateOrder(args[0]);
+            return null;
+        case "getSource":
+            return "Replay";
+        case "toString":
+            return "ReplayProvider";
+        case "hashCode":
+            return System.identityHashCode(proxy);
+        case "equals":
+            return proxy == args[0];
+        default:
+            return RecordedFeed.getDefaultValue(method.getReturnType());
+        }
+    }
+
+    private synchronized void onUpdateOrder(Object parameters) {
+        if (parameters instanceof OrderMoveParameters) {
+            OrderMoveParameters moveParameters = (OrderMoveParameters) parameters;
+            movesCount++;
+            OrderInfoBuilder builder = orders.get(moveParameters.orderId);
+            if (builder == null) {
+                unknownOrderCount++;
+                return;
+            }
+            builder.setLimitPrice(moveParameters.limitPrice);
+            pendingUpdates.add(builder.build());
+        } else if (parameters instanceof OrderCancelParameters) {
+            OrderCancelParameters cancelParameters = (OrderCancelParameters) parameters;
+            cancelsCount++;
+            OrderInfoBuilder builder = orders.remove(cancelParameters.orderId);
+            if (builder == null) {
+                unknownOrderCount++;
+                return;
+            }
+            builder.setUnfilled(0).setStatus(OrderStatus.CANCELLED);
+            pendingUpdates.add(builder.build());
+        } else {
+            Log.warn("Replay: unsupported order update " + parameters);
+        }
+    }
+
+    public synchronized long getMovesCount() {
+        return movesCount;
+    }
+
+    public synchronized long getCancelsCount() {
+        return cancelsCount;
+    }
+
+    /**
+     * Number of updates for orders that were already cancelled
+     */
+    public synchronized long getUnknownOrderCount() {
+        return unknownOrderCount;
+    }
+
+    public synchronized int getWorkingOrdersCount() {
+        return orders.size();
+    }
+}
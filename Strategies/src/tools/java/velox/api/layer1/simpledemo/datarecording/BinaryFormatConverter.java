@@ -0,0 +1,146 @@
+package velox.api.layer1.simpledemo.datarecording;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts depth recording of {@link BinaryFormatRecorder} into the text
+ * format of {@link SpecificFormatRecorder}, so tools reading text recordings
+ * can be used with it.
+ * <p>
+ * Usage: {@code BinaryFormatConverter <binary file> <text file>}
+ */
+public class BinaryFormatConverter {
+
+    private static final String EOL = System.getProperty("line.separator");
+    private static final char DELIMITER = ',';
+
+    private static class Instrument {
+        final int id;
+        final double pips;
+        long lastPrice = 0;
+
+        Instrument(int id, double pips) {
+            this.id = id;
+            this.pips = pips;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: BinaryFormatConverter <binary file> <text file>");
+            System.exit(1);
+        }
+        convert(new File(args[0]), new File(args[1]));
+    }
+
+    public static void convert(File binaryFile, File textFile) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(binaryFile), 1 << 16));
+                Writer output = new BufferedWriter(new FileWriter(textFile), 1 << 16)) {
+            if (input.readInt() != BinaryFormatRecorder.MAGIC) {
+                throw new IOException("Not a binary feed recording: " + binaryFile);
+            }
+            long time = input.readLong();
+            output.append(SpecificFormatTags.ON_FEED_SOURCE)
+                    .append(DELIMITER).append(Long.toString(time))
+                    .append(DELIMITER).append(Integer.toString(-1))
+                    .append(DELIMITER).append(readString(input))
+                    .append(EOL);
+
+            List<Instrument> instruments = new ArrayList<>();
+            int tag;
+            while ((tag = input.read()) != -1) {
+                time += readVarLong(input);
+                switch (tag) {
+                case BinaryFormatRecorder.TAG_CONTRACT_DETAILS: {
+                    int id = (int) readVarLong(input);
+                    String exchange = readString(input);
+                    String symbol = readString(input);
+                    String type = readString(input);
+                    double pips = input.readDouble();
+                    double multiplier = input.readDouble();
+                    instruments.add(new Instrument(id, pips));
+                    output.append(SpecificFormatTags.ON_CONTRACT_DETAILS)
+                            .append(DELIMITER).append(Long.toString(time))
+                            .append(DELIMITER).append(Integer.toString(id))
+                            .append(DELIMITER).append(exchange)
+                            .append(DELIMITER).append(symbol)
+                            .append(DELIMITER).append(type)
+                            .append(DELIMITER).append(Double.toString(pips))
+                            .append(DELIMITER).append(Double.toString(multiplier))
+                            .append(DELIMITER).append("0")
+                            .append(EOL);
+                    break;
+                }
+                case BinaryFormatRecorder.TAG_BID_UPDATE:
+                case BinaryFormatRecorder.TAG_ASK_UPDATE: {
+                    Instrument instrument = instruments.get((int) readVarLong(input));
+                    instrument.lastPrice += readVarLong(input);
+                    int size = (int) readVarLong(input);
+                    output.append(SpecificFormatTags.ON_BOOK_UPDATE)
+                            .append(DELIMITER).append(Long.toString(time))
+                            .append(DELIMITER).append(Integer.toString(instrument.id))
+                            .append(DELIMITER).append(Integer.toString(tag == BinaryFormatRecorder.TAG_BID_UPDATE
+                                    ? SpecificFormatTags.BID_SIDE : SpecificFormatTags.ASK_SIDE))
+                            .append(DELIMITER).append(Double.toString(instrument.pips * instrument.lastPrice))
+                            .append(DELIMITER).append(Integer.toString(size))
+                            .append(EOL);
+                    break;
+                }
+                case BinaryFormatRecorder.TAG_TRADE:
+                case BinaryFormatRecorder.TAG_TRADE_OFF_TICK: {
+                    Instrument instrument = instruments.get((int) readVarLong(input));
+                    double price;
+                    if (tag == BinaryFormatRecorder.TAG_TRADE) {
+                        instrument.lastPrice += readVarLong(input);
+                        price = instrument.pips * instrument.lastPrice;
+                    } else {
+                        price = input.readDouble();
+                    }
+                    output.append(SpecificFormatTags.ON_TRADE)
+                            .append(DELIMITER).append(Long.toString(time))
+                            .append(DELIMITER).append(Integer.toString(instrument.id))
+                            .append(DELIMITER).append(Double.toString(price))
+                            .append(DELIMITER).append(Long.toString(readVarLong(input)))
+                            .append(DELIMITER).append(Long.toString(readVarLong(input)))
+                            .append(DELIMITER).append(Long.toString(readVarLong(input)))
+                            .append(EOL);
+                    break;
+                }
+                default:
+                    throw new IOException("Unknown record " + tag + " in " + binaryFile);
+                }
+            }
+        } catch (EOFException e) {
+            // Recording was not closed properly, the last record is incomplete
+        }
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        byte[] bytes = new byte[(int) readVarLong(input)];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long readVarLong(DataInputStream input) throws IOException {
+        long zigzag = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = input.readByte();
+            zigzag |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+}
@@ -0,0 +1,192 @@
+package velox.api.layer1.simpledemo.datarecording;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import velox.api.layer1.data.InstrumentInfo;
+
+/**
+ * Depth updates and trades of a text recording written by
+ * {@link SpecificFormatRecorder}, loaded once into primitive arrays so
+ * offline tools can stream them without parsing or allocating. Binary
+ * recordings have to be converted by {@link BinaryFormatConverter} first.
+ * <p>
+ * Prices are in ticks of the instrument. Depth prices are rounded to whole
+ * ticks, trade prices are kept as recorded since trades can happen between
+ * levels.
+ */
+public class RecordedFeed {
+
+    public static final byte EVENT_DEPTH_BID = 0;
+    public static final byte EVENT_DEPTH_ASK = 1;
+    public static final byte EVENT_TRADE_BID_AGGRESSOR = 2;
+    public static final byte EVENT_TRADE_ASK_AGGRESSOR = 3;
+
+    private static final char DELIMITER = ',';
+
+    private final List<InstrumentInfo> instruments = new ArrayList<>();
+
+    private int eventsCount = 0;
+    private long[] eventTimesMs = new long[1024];
+    private byte[] eventTypes = new byte[1024];
+    private int[] eventInstruments = new int[1024];
+    private double[] eventPrices = new double[1024];
+    private int[] eventSizes = new int[1024];
+
+    private RecordedFeed() {
+    }
+
+    /**
+     * Load all instruments of the recording
+     */
+    public static RecordedFeed load(File depthFile) throws IOException {
+        return load(depthFile, instrumentInfo -> true);
+    }
+
+    /**
+     * @param isLoaded called once for every instrument in the order they are
+     *            recorded, events of rejected instruments are skipped
+     */
+    public static RecordedFeed load(File depthFile, Predicate<InstrumentInfo> isLoaded) throws IOException {
+        RecordedFeed feed = new RecordedFeed();
+        Map<Integer, Integer> instrumentIndexes = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(depthFile))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                String[] fields = line.split(String.valueOf(DELIMITER));
+                switch (line.charAt(0)) {
+                case SpecificFormatTags.ON_CONTRACT_DETAILS: {
+                    String exchange = fields[3];
+                    String symbol = fields[4];
+                    String type = fields[5];
+                    double pips = Double.parseDouble(fields[6]);
+                    double multiplier = Double.parseDouble(fields[7]);
+                    InstrumentInfo instrumentInfo = new InstrumentInfo(symbol, exchange, type, pips, multiplier, symbol, false);
+                    if (isLoaded.test(instrumentInfo)) {
+                        instrumentIndexes.put(Integer.parseInt(fields[2]), feed.instruments.size());
+                        feed.instruments.add(instrumentInfo);
+                    }
+                    break;
+                }
+                case SpecificFormatTags.ON_BOOK_UPDATE: {
+                    Integer index = instrumentIndexes.get(Integer.parseInt(fields[2]));
+                    if (index != null) {
+                        boolean isBid = Integer.parseInt(fields[3]) == SpecificFormatTags.BID_SIDE;
+                        double ticks = Math.round(Double.parseDouble(fields[4]) / feed.instruments.get(index).pips);
+                        feed.addEvent(Long.parseLong(fields[1]), isBid ? EVENT_DEPTH_BID : EVENT_DEPTH_ASK, index,
+                                ticks, Integer.parseInt(fields[5]));
+                    }
+                    break;
+                }
+                case SpecificFormatTags.ON_TRADE: {
+                    Integer index = instrumentIndexes.get(Integer.parseInt(fields[2]));
+                    if (index != null) {
+                        boolean isBidAggressor = Integer.parseInt(fields[5]) > 0;
+                        double ticks = Double.parseDouble(fields[3]) / feed.instruments.get(index).pips;
+                        feed.addEvent(Long.parseLong(fields[1]), isBidAggressor ? EVENT_TRADE_BID_AGGRESSOR : EVENT_TRADE_ASK_AGGRESSOR,
+                                index, ticks, Integer.parseInt(fields[4]));
+                    }
+                    break;
+                }
+                default:
+                    break;
+                }
+            }
+        }
+        return feed;
+    }
+
+    /**
+     * Loaded instruments, events refer to them by index. Alias of every
+     * instrument is its symbol.
+     */
+    public List<InstrumentInfo> getInstruments() {
+        return instruments;
+    }
+
+    public int getEventsCount() {
+        return eventsCount;
+    }
+
+    /**
+     * Recording time, with millisecond precision
+     */
+    public long getTimeMs(int event) {
+        return eventTimesMs[event];
+    }
+
+    /**
+     * One of the EVENT_* constants
+     */
+    public byte getType(int event) {
+        return eventTypes[event];
+    }
+
+    public int getInstrument(int event) {
+        return eventInstruments[event];
+    }
+
+    /**
+     * Price in ticks, whole for depth updates
+     */
+    public double getPrice(int event) {
+        return eventPrices[event];
+    }
+
+    public int getSize(int event) {
+        return eventSizes[event];
+    }
+
+    private void addEvent(long timeMs, byte type, int instrumentIndex, double price, int size) {
+        if (eventsCount == eventTypes.length) {
+            int capacity = eventsCount * 2;
+            eventTimesMs = Arrays.copyOf(eventTimesMs, capacity);
+            eventTypes = Arrays.copyOf(eventTypes, capacity);
+            eventInstruments = Arrays.copyOf(eventInstruments, capacity);
+            eventPrices = Arrays.copyOf(eventPrices, capacity);
+            eventSizes = Arrays.copyOf(eventSizes, capacity);
+        }
+        eventTimesMs[eventsCount] = timeMs;
+        eventTypes[eventsCount] = type;
+        eventInstruments[eventsCount] = instrumentIndex;
+        eventPrices[eventsCount] = price;
+        eventSizes[eventsCount] = size;
+        eventsCount++;
+    }
+
+    /**
+     * Value returned by proxies of offline tools for methods they do not
+     * implement: 0 or false for primitives, null for objects
+     */
+    public static Object getDefaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        } else if (type == char.class) {
+            return '\0';
+        } else if (type == byte.class) {
+            return (byte) 0;
+        } else if (type == short.class) {
+            return (short) 0;
+        } else if (type == int.class) {
+            return 0;
+        } else if (type == long.class) {
+            return 0L;
+        } else if (type == float.class) {
+            return 0f;
+        } else if (type == double.class) {
+            return 0d;
+        }
+        return null;
+    }
+}
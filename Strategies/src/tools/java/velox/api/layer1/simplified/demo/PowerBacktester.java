@@ -0,0 +1,330 @@
+package velox.api.layer1.simplified.demo;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+import velox.api.layer1.data.InstrumentInfo;
+import velox.api.layer1.simpledemo.datarecording.RecordedFeed;
+import velox.api.layer1.simplified.Api;
+import velox.api.layer1.simplified.Indicator;
+
+/**
+ * Offline parameter sweep of power indicator trading profiles. Loads depth
+ * and trades from a text file written by FeedRecorder demo into a
+ * {@link RecordedFeed} once, then runs every configuration of the grid over that same event stream on a
+ * fork-join pool.
+ * Profiles are the ones used by the modules, with their signal and fill logic
+ * unchanged: they get an {@link Api} whose indicators discard points and a
+ * disabled {@link PowerEventLog}. PnL and drawdown are taken from the
+ * "Profit" indicator of the profile, configurations are ranked by PnL and
+ * then by lower drawdown.
+ * <p>
+ * Usage: {@code PowerBacktester <depth file> [symbol] [bucket ms]}
+ * <p>
+ * Only one instrument is simulated, the first one in the file if symbol is
+ * not given. Recorded times have millisecond precision.
+ */
+public class PowerBacktester {
+
+    private static final String PROFIT_INDICATOR_SUFFIX = "Profit";
+    private static final int RESULTS_SHOWN = 20;
+
+    /**
+     * Named way to create a fresh profile, one per run
+     */
+    public static final class Configuration {
+        private final String description;
+        private final Supplier<PowerProfile> profileFactory;
+
+        public Configuration(String description, Supplier<PowerProfile> profileFactory) {
+            this.description = description;
+            this.profileFactory = profileFactory;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    public static final class Result {
+        private final Configuration configuration;
+        private final double profit;
+        private final double maxDrawdown;
+        private final int bucketsCount;
+
+        private Result(Configuration configuration, double profit, double maxDrawdown, int bucketsCount) {
+            this.configuration = configuration;
+            this.profit = profit;
+            this.maxDrawdown = maxDrawdown;
+            this.bucketsCount = bucketsCount;
+        }
+
+        public Configuration getConfiguration() {
+            return configuration;
+        }
+
+        /**
+         * Last value of the profit indicator, 0 if the profile never traded
+         */
+        public double getProfit() {
+            return profit;
+        }
+
+        /**
+         * Largest fall of the profit indicator from its previous peak
+         */
+        public double getMaxDrawdown() {
+            return maxDrawdown;
+        }
+
+        public int getBucketsCount() {
+            return bucketsCount;
+        }
+    }
+
+    /**
+     * Keeps last value and drawdown of the points added to the profit indicator
+     */
+    private static final class ProfitTracker {
+        private boolean hasPoints = false;
+        private double last = 0;
+        private double peak = 0;
+        private double maxDrawdown = 0;
+
+        private void addPoint(double value) {
+            if (Double.isNaN(value)) {
+                return;
+            }
+            if (!hasPoints || value > peak) {
+                peak = value;
+                hasPoints = true;
+            }
+            last = value;
+            maxDrawdown = Math.max(maxDrawdown, peak - value);
+        }
+    }
+
+    private String alias;
+    private InstrumentInfo instrumentInfo;
+    private RecordedFeed feed;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Usage: PowerBacktester <depth file> [symbol] [bucket ms]");
+            return;
+        }
+
+        PowerBacktester backtester = new PowerBacktester();
+        backtester.load(new File(args[0]), args.length > 1 ? args[1] : null);
+        PowerBucketing bucketing = args.length > 2
+                ? PowerBucketing.time(Long.parseLong(args[2]) * 1_000_000L)
+                : PowerBucketing.fromProperties();
+
+        List<Configuration> configurations = createDefaultGrid();
+        System.out.println("Simulating " + configurations.size() + " configurations over " + backtester.feed.getEventsCount()
+                + " events of " + backtester.alias);
+
+        long start = System.nanoTime();
+        Result[] results = backtester.run(configurations, bucketing, ForkJoinPool.commonPool());
+        System.out.printf("Done in %d ms%n", (System.nanoTime() - start) / 1_000_000);
+
+        Arrays.sort(results, getRanking());
+        System.out.printf("%-50s %15s %15s%n", "Configuration", "PnL", "Max drawdown");
+        for (int i = 0; i < Math.min(RESULTS_SHOWN, results.length); i++) {
+            Result result = results[i];
+            System.out.printf("%-50s %15.2f %15.2f%n", result.configuration.description, result.profit, result.maxDrawdown);
+        }
+    }
+
+    /**
+     * Grid around the parameters of {@link PowerIndicatorTest4} and
+     * {@link PowerIndicatorTest5}
+     */
+    public static List<Configuration> createDefaultGrid() {
+        List<Configuration> configurations = new ArrayList<>();
+        for (double signalThreshold : new double[] {2, 3, 4, 5, 6, 8}) {
+            for (int windowSize : new int[] {30, 60, 120, 300}) {
+                for (double investmentAmount : new double[] {1000, 10000, 100000}) {
+                    String description = String.format("Market making threshold=%s window=%d lot=%s",
+                            signalThreshold, windowSize, investmentAmount);
+                    configurations.add(new Configuration(description,
+                            () -> new MarketMakingProfile(description, signalThreshold, investmentAmount, windowSize)));
+                }
+            }
+        }
+        for (double tradeAmount : new double[] {250, 500, 1000, 2000, 5000}) {
+            String description = String.format("Volume flip cash=10000 lot=%s", tradeAmount);
+            configurations.add(new Configuration(description,
+                    () -> new VolumeFlipProfile(description, 10000, tradeAmount)));
+        }
+        return configurations;
+    }
+
+    /**
+     * Higher PnL first, lower drawdown first among equal PnL
+     */
+    public static Comparator<Result> getRanking() {
+        return Comparator.comparingDouble(Result::getProfit).reversed()
+                .thenComparingDouble(Result::getMaxDrawdown);
+    }
+
+    /**
+     * Load depth updates and trades of one instrument
+     * @param symbol instrument to load, first one in the file if null
+     */
+    public void load(File depthFile, String symbol) throws IOException {
+        // Only the first matching instrument is loaded
+        boolean[] isFound = {false};
+        feed = RecordedFeed.load(depthFile, instrumentInfo -> {
+            if (isFound[0] || (symbol != null && !symbol.equals(instrumentInfo.symbol))) {
+                return false;
+            }
+            isFound[0] = true;
+            return true;
+        });
+        if (feed.getInstruments().isEmpty()) {
+            throw new IllegalArgumentException("Instrument " + (symbol == null ? "" : symbol + " ") + "not found in " + depthFile);
+        }
+        instrumentInfo = feed.getInstruments().get(0);
+        alias = instrumentInfo.symbol;
+    }
+
+    /**
+     * Simulate every configuration, each on its own profile instance
+     * @return results in the order of configurations
+     */
+    public Result[] run(List<Configuration> configurations, PowerBucketing bucketing, ForkJoinPool pool) {
+        Result[] results = new Result[configurations.size()];
+        pool.invoke(new SimulationTask(configurations, bucketing, results, 0, results.length));
+        return results;
+    }
+
+    private class SimulationTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Configuration> configurations;
+        private final PowerBucketing bucketing;
+        private final Result[] results;
+        private final int from;
+        private final int to;
+
+        private SimulationTask(List<Configuration> configurations, PowerBucketing bucketing, Result[] results, int from, int to) {
+            this.configurations = configurations;
+            this.bucketing = bucketing;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (to > from) {
+                    results[from] = simulate(configurations.get(from), bucketing);
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new SimulationTask(configurations, bucketing, results, from, middle),
+                        new SimulationTask(configurations, bucketing, results, middle, to));
+            }
+        }
+    }
+
+    /**
+     * Replay the loaded events through one profile, closing buckets like
+     * {@link PowerIndicatorEngine} does. For time buckets every elapsed
+     * bucket is closed, including empty ones, same as live intervals.
+     */
+    Result simulate(Configuration configuration, PowerBucketing bucketing) {
+        ProfitTracker profitTracker = new ProfitTracker();
+        PowerProfile profile = configuration.profileFactory.get();
+        profile.initialize(alias, instrumentInfo, createApi(profitTracker), "", PowerEventLog.disabled());
+
+        PowerIntervalData data = new PowerIntervalData();
+        int bucketsCount = 0;
+        int bucketUpdatesCount = 0;
+        boolean isTimeBucketing = bucketing.getMode() == PowerBucketing.Mode.TIME;
+        long bucketNanos = bucketing.getIntervalNanos();
+        int eventsCount = feed.getEventsCount();
+        long bucketEndNanos = eventsCount == 0 ? 0 : (feed.getTimeMs(0) * 1_000_000L / bucketNanos + 1) * bucketNanos;
+
+        for (int i = 0; i < eventsCount; i++) {
+            if (isTimeBucketing) {
+                long timeNanos = feed.getTimeMs(i) * 1_000_000L;
+                while (timeNanos >= bucketEndNanos) {
+                    profile.onInterval(data);
+                    data.resetInterval();
+                    bucketsCount++;
+                    bucketEndNanos += bucketNanos;
+                }
+            }
+
+            byte eventType = feed.getType(i);
+            int size = feed.getSize(i);
+            if (eventType == RecordedFeed.EVENT_TRADE_BID_AGGRESSOR || eventType == RecordedFeed.EVENT_TRADE_ASK_AGGRESSOR) {
+                profile.onTrade(feed.getPrice(i), size, eventType == RecordedFeed.EVENT_TRADE_BID_AGGRESSOR);
+                continue;
+            }
+
+            boolean isBid = eventType == RecordedFeed.EVENT_DEPTH_BID;
+            int price = (int) feed.getPrice(i);
+            data.onDepth(isBid, price, size);
+            profile.onDepth(isBid, price, size);
+
+            boolean isBucketFull;
+            switch (bucketing.getMode()) {
+            case DEPTH_UPDATES:
+                isBucketFull = ++bucketUpdatesCount >= bucketing.getSize();
+                break;
+            case VOLUME:
+                isBucketFull = data.getTotalBuyVolume() + data.getTotalSellVolume() >= bucketing.getSize();
+                break;
+            default:
+                isBucketFull = false;
+                break;
+            }
+            if (isBucketFull) {
+                profile.onInterval(data);
+                data.resetInterval();
+                bucketsCount++;
+                bucketUpdatesCount = 0;
+            }
+        }
+
+        return new Result(configuration, profitTracker.last, profitTracker.maxDrawdown, bucketsCount);
+    }
+
+    /**
+     * Api where the profit indicator feeds the tracker and every other
+     * indicator call is ignored. Methods that are not implemented return 0,
+     * false or null.
+     */
+    private static Api createApi(ProfitTracker profitTracker) {
+        Indicator ignoredIndicator = (Indicator) Proxy.newProxyInstance(Indicator.class.getClassLoader(),
+                new Class<?>[] {Indicator.class},
+                (proxy, method, args) -> RecordedFeed.getDefaultValue(method.getReturnType()));
+        Indicator profitIndicator = (Indicator) Proxy.newProxyInstance(Indicator.class.getClassLoader(),
+                new Class<?>[] {Indicator.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("addPoint")) {
+                        profitTracker.addPoint((Double) args[0]);
+                    }
+                    return RecordedFeed.getDefaultValue(method.getReturnType());
+                });
+        return (Api) Proxy.newProxyInstance(Api.class.getClassLoader(), new Class<?>[] {Api.class},
+                (proxy, method, args) -> {
+                    if (method.getReturnType() != Indicator.class) {
+                        return RecordedFeed.getDefaultValue(method.getReturnType());
+                    }
+                    String name = (String) args[0];
+                    return name.endsWith(PROFIT_INDICATOR_SUFFIX) ? profitIndicator : ignoredIndicator;
+                });
+    }
+}